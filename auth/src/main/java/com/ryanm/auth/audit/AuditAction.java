@@ -0,0 +1,16 @@
+package com.ryanm.auth.audit;
+
+/**
+ * What a task mutation did. Stored by ordinal in the audit segments: new
+ * actions go at the end, existing ones are never reordered or removed.
+ */
+public enum AuditAction {
+    CREATE,
+    UPDATE,
+    // An update through share access (TaskService.editTask), possibly by a user other than the owner
+    EDIT,
+    TOGGLE,
+    DELETE,
+    SHARE,
+    UNSHARE
+}
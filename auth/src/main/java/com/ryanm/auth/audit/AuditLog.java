@@ -0,0 +1,208 @@
+package com.ryanm.auth.audit;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.ryanm.auth.model.TaskShare.SharePermission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Audit trail of task and share mutations, kept off the request path. record()
+ * only publishes the entry to a bounded lock-free ring buffer; the audit-writer
+ * thread drains it in batches into memory-mapped segments (AuditSegmentWriter)
+ * and fsyncs them every fsync-interval, so a crash loses at most that window.
+ * Idle, the writer sleeps until the next fsync is due; the first entry into
+ * the empty buffer wakes it.
+ *
+ * When the buffer is full, backpressure decides: DROP discards the entry and
+ * counts it in auth.audit.dropped, BLOCK makes the caller wait for room. The
+ * segments are read back offline with AuditLogReader.
+ */
+@Component
+public class AuditLog implements InitializingBean, DisposableBean {
+
+    public enum Backpressure { DROP, BLOCK }
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+
+    // A blocked producer's wait between attempts, and the writer's wait after a failed write
+    private static final long BLOCKED_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long RETRY_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final boolean enabled;
+    private final Backpressure backpressure;
+    private final int batchSize;
+    private final long fsyncInterval;
+    private final AuditRingBuffer buffer;
+    private final AuditSegmentWriter writer;
+    private final Thread writerThread;
+    private final Counter dropped;
+    private final Counter blocked;
+    private final Counter written;
+
+    private volatile boolean closed;
+
+    // Set while the writer is (about to be) parked on an empty buffer; a producer seeing it unparks the writer
+    private volatile boolean writerParked;
+
+    public AuditLog(
+            MeterRegistry registry,
+            @Value("${auth.audit.enabled:true}") boolean enabled,
+            @Value("${auth.audit.directory:../data/audit}") Path directory,
+            @Value("${auth.audit.buffer-capacity:65536}") int capacity,
+            @Value("${auth.audit.backpressure:drop}") Backpressure backpressure,
+            @Value("${auth.audit.batch-size:1024}") int batchSize,
+            @Value("${auth.audit.segment-size:64MB}") DataSize segmentSize,
+            @Value("${auth.audit.fsync-interval:1s}") Duration fsyncInterval) {
+        this.enabled = enabled;
+        this.backpressure = backpressure;
+        this.batchSize = batchSize;
+        this.fsyncInterval = fsyncInterval.toNanos();
+        this.buffer = enabled ? new AuditRingBuffer(capacity) : null;
+        try {
+            this.writer = enabled ? new AuditSegmentWriter(directory, segmentSize.toBytes()) : null;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not open the audit log in " + directory.toAbsolutePath(), e);
+        }
+
+        this.dropped = Counter.builder("auth.audit.dropped")
+                .description("Audit entries discarded because the buffer was full or the log closed")
+                .register(registry);
+        this.blocked = Counter.builder("auth.audit.blocked")
+                .description("Mutations that waited for room in the audit buffer")
+                .register(registry);
+        this.written = Counter.builder("auth.audit.written")
+                .description("Audit entries appended to the segment files")
+                .register(registry);
+        if (enabled) {
+            Gauge.builder("auth.audit.backlog", buffer, AuditRingBuffer::size)
+                    .description("Audit entries waiting for the writer")
+                    .register(registry);
+            // Started in afterPropertiesSet, once this object is fully constructed
+            this.writerThread = new Thread(this::drain, "audit-writer");
+            writerThread.setDaemon(true);
+        } else {
+            this.writerThread = null;
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (enabled) {
+            writerThread.start();
+        }
+    }
+
+    public void record(AuditAction action, long actorId, long taskId) {
+        record(action, actorId, taskId, 0L, null);
+    }
+
+    public void record(AuditAction action, long actorId, long taskId, long targetUserId, SharePermission permission) {
+        if (!enabled) {
+            return;
+        }
+        long timestamp = System.currentTimeMillis();
+        int permissionOrdinal = permission == null ? -1 : permission.ordinal();
+        if (closed) {
+            dropped.increment();
+            return;
+        }
+        if (buffer.offer(timestamp, actorId, taskId, targetUserId, action.ordinal(), permissionOrdinal)) {
+            wakeWriter();
+            return;
+        }
+        if (backpressure == Backpressure.DROP) {
+            dropped.increment();
+            return;
+        }
+        blocked.increment();
+        while (!buffer.offer(timestamp, actorId, taskId, targetUserId, action.ordinal(), permissionOrdinal)) {
+            if (closed) {
+                dropped.increment();
+                return;
+            }
+            LockSupport.parkNanos(BLOCKED_PARK_NANOS);
+        }
+        wakeWriter();
+    }
+
+    // One volatile read per entry while the writer is busy; an unpark only when it waits on an empty buffer
+    private void wakeWriter() {
+        if (writerParked) {
+            writerParked = false;
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    // The audit-writer thread: drains until closed and empty, then fsyncs and closes the segment
+    private void drain() {
+        long lastForce = System.nanoTime();
+        try {
+            while (true) {
+                // Read before draining, so entries published before close() are still written
+                boolean closing = closed;
+                int drained;
+                try {
+                    drained = buffer.drain(writer, Math.min(batchSize, writer.reserve()));
+                    long now = System.nanoTime();
+                    if (now - lastForce >= fsyncInterval) {
+                        writer.force();
+                        lastForce = now;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // Entries stay in the buffer meanwhile; with DROP, producers start dropping once it fills
+                    log.error("Audit log write failed, retrying: {}", e.getMessage());
+                    LockSupport.parkNanos(RETRY_PARK_NANOS);
+                    continue;
+                }
+                if (drained > 0) {
+                    written.increment(drained);
+                } else if (closing) {
+                    return;
+                } else {
+                    idle(lastForce);
+                }
+            }
+        } finally {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.error("Could not close the audit log: {}", e.getMessage());
+            }
+        }
+    }
+
+    // Parks until a producer publishes an entry or the next fsync is due. The flag is raised before the
+    // buffer is re-checked and a producer reads it after publishing, so one of the two always sees the other
+    private void idle(long lastForce) {
+        writerParked = true;
+        if (buffer.size() == 0 && !closed) {
+            LockSupport.parkNanos(this, lastForce + fsyncInterval - System.nanoTime());
+        }
+        writerParked = false;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
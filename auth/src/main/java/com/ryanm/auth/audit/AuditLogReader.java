@@ -0,0 +1,62 @@
+package com.ryanm.auth.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Offline reader of the audit segments, safe to run while the application is
+ * writing them: each segment is read up to its last intact record. Prints the
+ * whole trail, or the entries of one task or one user (as actor or target):
+ *
+ *   java -cp auth/target/classes com.ryanm.auth.audit.AuditLogReader data/audit [--task id] [--user id]
+ */
+public final class AuditLogReader {
+
+    private AuditLogReader() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1 && args.length != 3) {
+            System.err.println("Usage: AuditLogReader <directory> [--task <id> | --user <id>]");
+            System.exit(2);
+        }
+        long id = args.length == 3 ? Long.parseLong(args[2]) : 0;
+        String filter = args.length == 3 ? args[1] : "";
+        read(Path.of(args[0]), auditRecord -> {
+            boolean matches = switch (filter) {
+                case "--task" -> auditRecord.taskId() == id;
+                case "--user" -> auditRecord.actorId() == id || auditRecord.targetUserId() == id;
+                default -> true;
+            };
+            if (matches) {
+                System.out.println(auditRecord);
+            }
+        });
+    }
+
+    // Every intact record of every segment in the directory, in sequence order
+    public static void read(Path directory, Consumer<AuditRecord> consumer) throws IOException {
+        CRC32C crc = new CRC32C();
+        for (Path segment : AuditSegment.list(directory)) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                ByteBuffer view = buffer.duplicate();
+                long sequence = AuditSegment.readHeader(buffer);
+                if (sequence < 0) {
+                    continue;
+                }
+                for (int offset = AuditSegment.HEADER_SIZE;
+                     AuditSegment.isRecord(buffer, view, crc, offset, sequence);
+                     offset += AuditSegment.RECORD_SIZE, sequence++) {
+                    consumer.accept(AuditSegment.readRecord(buffer, offset));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.ryanm.auth.audit;
+
+import java.time.Instant;
+
+import com.ryanm.auth.model.TaskShare.SharePermission;
+
+/**
+ * One audit entry as read back from a segment. targetUserId and permission are
+ * only set for SHARE (both) and UNSHARE (the user); otherwise 0 and null.
+ */
+public record AuditRecord(
+        long sequence,
+        Instant timestamp,
+        AuditAction action,
+        long actorId,
+        long taskId,
+        long targetUserId,
+        SharePermission permission) {
+
+    @Override
+    public String toString() {
+        StringBuilder line = new StringBuilder()
+                .append(sequence).append(' ')
+                .append(timestamp).append(' ')
+                .append(action).append(" actor=").append(actorId)
+                .append(" task=").append(taskId);
+        if (targetUserId != 0) {
+            line.append(" user=").append(targetUserId);
+        }
+        if (permission != null) {
+            line.append(" permission=").append(permission);
+        }
+        return line.toString();
+    }
+}
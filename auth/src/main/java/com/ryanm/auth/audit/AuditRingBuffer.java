@@ -0,0 +1,97 @@
+package com.ryanm.auth.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer, single-consumer queue of audit entries. Entries are
+ * written field by field into preallocated long slots, so publishing allocates
+ * nothing and takes no lock: a producer claims a position with one CAS, fills
+ * the slot and releases it through the slot's sequence number, which the
+ * consumer reads before the fields (Vyukov's bounded queue).
+ *
+ * A slot's sequence is its position while free, position + 1 once published,
+ * and position + capacity after the consumer has taken it, ready for the
+ * producer one lap later.
+ */
+final class AuditRingBuffer {
+
+    // timestamp, actorId, taskId, targetUserId, action/permission
+    private static final int FIELDS = 5;
+
+    interface Sink {
+        void accept(long timestamp, long actorId, long taskId, long targetUserId, int action, int permission);
+    }
+
+    private final int mask;
+    private final long[] slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // Written by the consumer only; volatile for the backlog gauge
+    private volatile long head;
+
+    AuditRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Audit buffer capacity must be a power of two: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.slots = new long[capacity * FIELDS];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    // False when the buffer is full; nothing is written then
+    boolean offer(long timestamp, long actorId, long taskId, long targetUserId, int action, int permission) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long lag = sequences.getAcquire(index) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    int base = index * FIELDS;
+                    slots[base] = timestamp;
+                    slots[base + 1] = actorId;
+                    slots[base + 2] = taskId;
+                    slots[base + 3] = targetUserId;
+                    slots[base + 4] = (long) action << 8 | (permission & 0xFF);
+                    sequences.setRelease(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (lag < 0) {
+                // The slot still holds the entry from one lap ago
+                return false;
+            } else {
+                // Another producer took this position
+                position = tail.get();
+            }
+        }
+    }
+
+    // Consumer only: hands up to max published entries to the sink, oldest first
+    int drain(Sink sink, int max) {
+        long position = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) position & mask;
+            if (sequences.getAcquire(index) != position + 1) {
+                break;
+            }
+            int base = index * FIELDS;
+            long packed = slots[base + 4];
+            sink.accept(slots[base], slots[base + 1], slots[base + 2], slots[base + 3],
+                    (int) (packed >>> 8), (byte) packed);
+            sequences.setRelease(index, position + mask + 1);
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+}
@@ -0,0 +1,124 @@
+package com.ryanm.auth.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import com.ryanm.auth.model.TaskShare.SharePermission;
+
+/**
+ * On-disk layout of an audit segment, shared by the writer and the reader.
+ *
+ * A segment is a preallocated file named after its first sequence number. It
+ * starts with a 16-byte header (magic, version, record size, first sequence)
+ * followed by fixed 48-byte records:
+ *
+ *   sequence, timestamp (epoch ms), actorId, taskId, targetUserId  (5 x long)
+ *   action ordinal, permission ordinal or -1, 2 bytes padding
+ *   CRC32C of the 44 bytes before it                               (int)
+ *
+ * The unwritten tail of a segment is zeros. A segment ends at the first record
+ * whose checksum or sequence does not follow, which is also where a crash
+ * between two fsyncs leaves it.
+ */
+final class AuditSegment {
+
+    static final int MAGIC = 0x41554454; // "AUDT"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 48;
+
+    private static final int CHECKED_BYTES = RECORD_SIZE - Integer.BYTES;
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".seg";
+    private static final AuditAction[] ACTIONS = AuditAction.values();
+    private static final SharePermission[] PERMISSIONS = SharePermission.values();
+
+    private AuditSegment() {
+    }
+
+    // Zero-padded so name order is sequence order
+    static Path path(Path directory, long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, firstSequence, SUFFIX));
+    }
+
+    static List<Path> list(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    static void writeHeader(ByteBuffer buffer, long firstSequence) {
+        buffer.putInt(0, MAGIC);
+        buffer.putShort(4, VERSION);
+        buffer.putShort(6, (short) RECORD_SIZE);
+        buffer.putLong(8, firstSequence);
+    }
+
+    // First sequence of the segment, or -1 when the header is not a valid one
+    static long readHeader(ByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_SIZE
+                || buffer.getInt(0) != MAGIC
+                || buffer.getShort(4) != VERSION
+                || buffer.getShort(6) != RECORD_SIZE) {
+            return -1;
+        }
+        return buffer.getLong(8);
+    }
+
+    static void writeRecord(ByteBuffer buffer, ByteBuffer view, CRC32C crc, int offset, long sequence,
+                            long timestamp, long actorId, long taskId, long targetUserId, int action, int permission) {
+        buffer.putLong(offset, sequence);
+        buffer.putLong(offset + 8, timestamp);
+        buffer.putLong(offset + 16, actorId);
+        buffer.putLong(offset + 24, taskId);
+        buffer.putLong(offset + 32, targetUserId);
+        buffer.put(offset + 40, (byte) action);
+        buffer.put(offset + 41, (byte) permission);
+        buffer.putShort(offset + 42, (short) 0);
+        buffer.putInt(offset + CHECKED_BYTES, checksum(view, crc, offset));
+    }
+
+    // Whether a complete, intact record with this sequence sits at offset
+    static boolean isRecord(ByteBuffer buffer, ByteBuffer view, CRC32C crc, int offset, long sequence) {
+        return offset + RECORD_SIZE <= buffer.capacity()
+                && buffer.getLong(offset) == sequence
+                && buffer.getInt(offset + CHECKED_BYTES) == checksum(view, crc, offset)
+                && Byte.toUnsignedInt(buffer.get(offset + 40)) < ACTIONS.length
+                && buffer.get(offset + 41) < PERMISSIONS.length;
+    }
+
+    static AuditRecord readRecord(ByteBuffer buffer, int offset) {
+        byte permission = buffer.get(offset + 41);
+        return new AuditRecord(
+                buffer.getLong(offset),
+                Instant.ofEpochMilli(buffer.getLong(offset + 8)),
+                ACTIONS[Byte.toUnsignedInt(buffer.get(offset + 40))],
+                buffer.getLong(offset + 16),
+                buffer.getLong(offset + 24),
+                buffer.getLong(offset + 32),
+                permission < 0 ? null : PERMISSIONS[permission]);
+    }
+
+    // view is a duplicate of the segment buffer kept for this, so checksumming allocates nothing
+    private static int checksum(ByteBuffer view, CRC32C crc, int offset) {
+        crc.reset();
+        view.limit(offset + CHECKED_BYTES).position(offset);
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,129 @@
+package com.ryanm.auth.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Appends audit records to memory-mapped segments. A record is a few puts into
+ * the mapping; the page cache takes it from there, and force() makes what was
+ * appended since the last call durable. A full segment is forced, closed and
+ * replaced by a new one named after the next sequence.
+ *
+ * On open the newest segment is scanned to its last intact record and appended
+ * to from there, so a restart continues the sequence. Used by the audit writer
+ * thread only.
+ */
+final class AuditSegmentWriter implements AuditRingBuffer.Sink, Closeable {
+
+    private final Path directory;
+    private final int segmentSize;
+    private final CRC32C crc = new CRC32C();
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private ByteBuffer view;
+    private int position;
+    private int forced;
+    private long nextSequence;
+
+    AuditSegmentWriter(Path directory, long segmentSize) throws IOException {
+        if (segmentSize < AuditSegment.HEADER_SIZE + AuditSegment.RECORD_SIZE || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Audit segment size must hold at least one record and stay under 2GB: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = (int) segmentSize;
+        Files.createDirectories(directory);
+
+        List<Path> segments = AuditSegment.list(directory);
+        if (segments.isEmpty() || !resume(segments.get(segments.size() - 1))) {
+            open(segments.isEmpty() ? 1 : nextSequence);
+        }
+    }
+
+    // Room left in the current segment, in records; rotates first when there is none
+    int reserve() throws IOException {
+        if (buffer.capacity() - position < AuditSegment.RECORD_SIZE) {
+            rotate();
+        }
+        return (buffer.capacity() - position) / AuditSegment.RECORD_SIZE;
+    }
+
+    // Only called for as many records as reserve() returned
+    @Override
+    public void accept(long timestamp, long actorId, long taskId, long targetUserId, int action, int permission) {
+        AuditSegment.writeRecord(buffer, view, crc, position, nextSequence++,
+                timestamp, actorId, taskId, targetUserId, action, permission);
+        position += AuditSegment.RECORD_SIZE;
+    }
+
+    // fsync of the records appended since the last call
+    void force() {
+        if (position > forced) {
+            buffer.force(forced, position - forced);
+            forced = position;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private void rotate() throws IOException {
+        close();
+        open(nextSequence);
+    }
+
+    // A new segment (or one whose header never made it to disk), preallocated to the segment size
+    private void open(long firstSequence) throws IOException {
+        channel = FileChannel.open(AuditSegment.path(directory, firstSequence),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        map(segmentSize);
+        AuditSegment.writeHeader(buffer, firstSequence);
+        buffer.force(0, AuditSegment.HEADER_SIZE);
+        position = AuditSegment.HEADER_SIZE;
+        forced = position;
+        nextSequence = firstSequence;
+    }
+
+    // Continues the segment after its last intact record; false when its header is unreadable
+    private boolean resume(Path segment) throws IOException {
+        channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // A segment written with another size setting is finished at its own size
+        map((int) Math.min(Integer.MAX_VALUE, Math.max(channel.size(), AuditSegment.HEADER_SIZE)));
+        long firstSequence = AuditSegment.readHeader(buffer);
+        if (firstSequence < 0) {
+            nextSequence = sequenceOf(segment);
+            channel.close();
+            return false;
+        }
+        nextSequence = firstSequence;
+        position = AuditSegment.HEADER_SIZE;
+        while (AuditSegment.isRecord(buffer, view, crc, position, nextSequence)) {
+            position += AuditSegment.RECORD_SIZE;
+            nextSequence++;
+        }
+        forced = position;
+        return true;
+    }
+
+    private void map(int size) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        view = buffer.duplicate();
+    }
+
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(name.indexOf('-') + 1, name.indexOf('.')));
+    }
+}
@@ -0,0 +1,57 @@
+package com.ryanm.auth.config;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Picks the BCrypt work factor for the machine we are running on: the highest
+ * strength in [min, max] whose hash time stays inside the latency budget.
+ * Each step doubles the cost, so the search stops as soon as the next step
+ * would clearly overshoot.
+ */
+final class BCryptCostCalibrator {
+
+    private static final Logger log = LoggerFactory.getLogger(BCryptCostCalibrator.class);
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+    private static final int SAMPLES = 2;
+
+    private BCryptCostCalibrator() {
+    }
+
+    static int calibrate(Duration budget, int minStrength, int maxStrength) {
+        long budgetNanos = budget.toNanos();
+        int chosen = minStrength;
+        long chosenNanos = 0;
+
+        for (int strength = minStrength; strength <= maxStrength; strength++) {
+            long nanos = measure(strength);
+            if (nanos > budgetNanos && strength > minStrength) {
+                break;
+            }
+            chosen = strength;
+            chosenNanos = nanos;
+            if (nanos * 2 > budgetNanos) {
+                break;
+            }
+        }
+
+        log.info("BCrypt strength calibrated to {} ({} ms per hash, budget {} ms)",
+                chosen, chosenNanos / 1_000_000, budget.toMillis());
+        return chosen;
+    }
+
+    // Best of a few runs so a GC pause or JIT warm-up does not push the cost down
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,52 @@
+package com.ryanm.auth.config;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * BCrypt at a fixed target strength that asks for a rehash whenever a stored
+ * hash was made at any other strength. Plain {@link BCryptPasswordEncoder} only
+ * upgrades weaker hashes. This one also moves stronger ones down to the target
+ * when the calibrated cost drops on slower hardware.
+ */
+final class CalibratedBCryptPasswordEncoder implements PasswordEncoder {
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+
+    CalibratedBCryptPasswordEncoder(int strength) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return strengthOf(encodedPassword) != strength;
+    }
+
+    // "$2a$10$..." -> 10; anything unparseable is rehashed
+    private static int strengthOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return -1;
+        }
+        int costStart = encodedPassword.indexOf('$', 1) + 1;
+        if (costStart <= 0 || costStart + 2 > encodedPassword.length()) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(encodedPassword, costStart, costStart + 2, 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -1,12 +1,20 @@
 package com.ryanm.auth.config;
 
+import com.ryanm.auth.jfr.QueryStats;
+import com.ryanm.auth.jfr.RequestEvent;
 import com.ryanm.auth.service.JwtService;
+import com.ryanm.auth.service.PrincipalCache;
+import com.ryanm.auth.service.TokenRevocationList;
 import com.ryanm.auth.service.UserService;
+import com.ryanm.auth.service.VerifiedToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -14,15 +22,53 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
-@RequiredArgsConstructor
 public class JwtFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserService userService;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationList revocationList;
+
+    // When true the principal comes from the token claims via PrincipalCache instead of a per-request user SELECT
+    private final boolean claimsPrincipal;
+
+    // Per-stage timers and rejection counters, registered once so a request records without allocating
+    private final Timer parseTimer;
+    private final Timer revocationTimer;
+    private final Timer userLoadTimer;
+    private final Timer validateTimer;
+    private final Counter invalidTokens;
+    private final Counter revokedTokens;
+    private final Counter refreshTokens;
+    private final Counter unknownUsers;
+
+    public JwtFilter(
+            JwtService jwtService,
+            UserService userService,
+            PrincipalCache principalCache,
+            TokenRevocationList revocationList,
+            MeterRegistry registry,
+            @Value("${auth.principal-cache.enabled:true}") boolean claimsPrincipal) {
+        this.jwtService = jwtService;
+        this.userService = userService;
+        this.principalCache = principalCache;
+        this.revocationList = revocationList;
+        this.claimsPrincipal = claimsPrincipal;
+        this.parseTimer = stageTimer(registry, "parse");
+        this.revocationTimer = stageTimer(registry, "revocation");
+        this.userLoadTimer = stageTimer(registry, "user_load");
+        this.validateTimer = stageTimer(registry, "validate");
+        this.invalidTokens = rejectionCounter(registry, "invalid");
+        this.revokedTokens = rejectionCounter(registry, "revoked");
+        this.refreshTokens = rejectionCounter(registry, "refresh_token");
+        this.unknownUsers = rejectionCounter(registry, "unknown_user");
+    }
 
     @Override
     protected void doFilterInternal(
@@ -30,17 +76,46 @@ public class JwtFilter extends OncePerRequestFilter {
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
-        
+        // Spans the whole request when JFR records it; the totals are read now and differenced at the end
+        RequestEvent event = new RequestEvent();
+        event.begin();
+        boolean profiling = event.isEnabled();
+        QueryStats stats = QueryStats.current();
+        long queries = profiling ? stats.queries() : 0;
+        long rows = profiling ? stats.rows() : 0;
+        long databaseNanos = profiling ? stats.nanos() : 0;
+        long allocated = profiling ? RequestEvent.currentThreadAllocatedBytes() : -1;
+
+        authenticate(request, event);
+
+        try {
+            // Step 11: Continue to the next filter in the chain
+            filterChain.doFilter(request, response);
+        } finally {
+            if (profiling && event.shouldCommit()) {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                event.method = request.getMethod();
+                event.endpoint = pattern != null ? pattern.toString() : request.getRequestURI();
+                event.status = response.getStatus();
+                event.queries = stats.queries() - queries;
+                event.rows = stats.rows() - rows;
+                event.databaseTime = stats.nanos() - databaseNanos;
+                event.allocated = allocated < 0 ? -1 : RequestEvent.currentThreadAllocatedBytes() - allocated;
+                event.commit();
+            }
+        }
+    }
+
+    // Steps 1-10: sets the security context when the request carries a valid, unrevoked token
+    private void authenticate(HttpServletRequest request, RequestEvent event) {
         // Step 1: Extract the Authorization header
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
 
         // Step 2: Check if the header exists and starts with "Bearer "
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             // No token provided, continue to next filter
             // This allows public endpoints to work normally
-            filterChain.doFilter(request, response);
             return;
         }
 
@@ -48,17 +123,44 @@ public class JwtFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7); // "Bearer ".length() = 7
         
         try {
-            // Step 4: Extract username from the JWT token
-            username = jwtService.extractUsername(jwt);
+            // Step 4: Verify the JWT once; every later step reads this claims view
+            long start = System.nanoTime();
+            VerifiedToken token = jwtService.verify(jwt);
+            long parsed = System.nanoTime();
+            parseTimer.record(parsed - start, TimeUnit.NANOSECONDS);
+            event.parseTime = parsed - start;
+            String username = token.subject();
+
+            // Refresh tokens are only accepted by /refresh-token and /logout, never as a bearer
+            if (token.isRefreshToken()) {
+                refreshTokens.increment();
+                return;
+            }
 
-            // Step 5: Check if username exists and user is not already authenticated
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Step 5: Check if username exists, the token is not revoked and user is not already authenticated
+            boolean revoked = revocationList.isRevoked(token);
+            long checked = System.nanoTime();
+            revocationTimer.record(checked - parsed, TimeUnit.NANOSECONDS);
+            event.revocationTime = checked - parsed;
+            if (revoked) {
+                revokedTokens.increment();
+            }
+            if (username != null
+                    && !revoked
+                    && SecurityContextHolder.getContext().getAuthentication() == null) {
                 
-                // Step 6: Load user details from database
-                UserDetails userDetails = this.userService.loadUserByUsername(username);
+                // Step 6: Resolve the user from the token claims (cached) or the database
+                UserDetails userDetails = resolvePrincipal(token);
+                long loaded = System.nanoTime();
+                userLoadTimer.record(loaded - checked, TimeUnit.NANOSECONDS);
+                event.userLoadTime = loaded - checked;
 
                 // Step 7: Validate the token against the user
-                if (jwtService.validateToken(jwt, userDetails.getUsername())) {
+                boolean valid = userDetails != null && token.isValidFor(userDetails.getUsername());
+                long validated = System.nanoTime();
+                validateTimer.record(validated - loaded, TimeUnit.NANOSECONDS);
+                event.validateTime = validated - loaded;
+                if (valid) {
                     
                     // Step 8: Create authentication token
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
@@ -75,15 +177,37 @@ public class JwtFilter extends OncePerRequestFilter {
                     // Step 10: Set the authentication in Security Context
                     // This tells Spring Security: "This user is authenticated!"
                     SecurityContextHolder.getContext().setAuthentication(authToken);
+                    event.userId = token.userId() != null ? token.userId() : 0L;
+                } else {
+                    unknownUsers.increment();
                 }
             }
         } catch (Exception e) {
             // If anything goes wrong with token validation, just continue
             // The request will be treated as unauthenticated
+            invalidTokens.increment();
             logger.error("JWT Authentication failed: " + e.getMessage());
         }
+    }
 
-        // Step 11: Continue to the next filter in the chain
-        filterChain.doFilter(request, response);
+    private static Timer stageTimer(MeterRegistry registry, String stage) {
+        return Timer.builder("auth.jwt.filter")
+                .tag("stage", stage)
+                .description("Time spent in one JwtFilter stage of an authenticated request")
+                .register(registry);
+    }
+
+    private static Counter rejectionCounter(MeterRegistry registry, String reason) {
+        return Counter.builder("auth.jwt.filter.rejected")
+                .tag("reason", reason)
+                .description("Bearer tokens JwtFilter did not authenticate")
+                .register(registry);
+    }
+
+    private UserDetails resolvePrincipal(VerifiedToken token) {
+        if (claimsPrincipal && token.userId() != null) {
+            return principalCache.resolve(token);
+        }
+        return userService.loadUserByUsername(token.subject());
     }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.ryanm.auth.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.util.function.SingletonSupplier;
+
+import com.ryanm.auth.service.TaskService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Instrumentation that has no single call site: a timer on every repository
+ * method, every TaskService operation and every JDBC statement. The other hot
+ * paths (JwtFilter stages, password hashing) record into timers they register
+ * themselves.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // Static, and resolving the registry lazily, so post-processing repositories does not create it early
+    @Bean
+    public static BeanPostProcessor repositoryTimingPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        SingletonSupplier<MeterRegistry> meterRegistry = SingletonSupplier.of(registry::getObject);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactory) {
+                    repositoryFactory.addRepositoryFactoryCustomizer(factory ->
+                        factory.addRepositoryProxyPostProcessor((proxy, information) ->
+                            proxy.addAdvice(new RepositoryTimingInterceptor(
+                                meterRegistry, information.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Outermost advice on the TaskService proxy, so the timing includes the transaction and its commit
+    @Bean
+    public static BeanPostProcessor taskServiceTimingPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        SingletonSupplier<MeterRegistry> meterRegistry = SingletonSupplier.of(registry::getObject);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (AopUtils.getTargetClass(bean) != TaskService.class) {
+                    return bean;
+                }
+                TaskServiceTimingInterceptor interceptor = new TaskServiceTimingInterceptor(meterRegistry);
+                if (bean instanceof Advised advised && !advised.isFrozen()) {
+                    advised.addAdvice(0, interceptor);
+                    return bean;
+                }
+                ProxyFactory proxyFactory = new ProxyFactory(bean);
+                proxyFactory.setProxyTargetClass(true);
+                proxyFactory.addAdvice(interceptor);
+                return proxyFactory.getProxy(bean.getClass().getClassLoader());
+            }
+        };
+    }
+
+    // Wraps the pool so every statement reaches SqlStatementMonitor; the monitor is resolved on first use for the same reason
+    @Bean
+    public static BeanPostProcessor sqlMonitoringPostProcessor(ObjectProvider<SqlStatementMonitor> monitor) {
+        SingletonSupplier<SqlStatementMonitor> statementMonitor = SingletonSupplier.of(monitor::getObject);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof MonitoredDataSource)) {
+                    return new MonitoredDataSource(dataSource, statementMonitor);
+                }
+                return bean;
+            }
+        };
+    }
+}
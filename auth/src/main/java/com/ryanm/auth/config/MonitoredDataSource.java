@@ -0,0 +1,115 @@
+package com.ryanm.auth.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import com.ryanm.auth.config.SqlStatementMonitor.Shape;
+
+/**
+ * Hands out connections whose statements report every execution to
+ * SqlStatementMonitor. The shape of a prepared statement is resolved once when
+ * it is prepared; a plain Statement resolves the SQL passed to each execute.
+ * Everything else goes straight to the pooled connection and statement.
+ *
+ * Spring infers a bean's destroy method from the class it exposes, so close()
+ * is passed on to the pool: without it the wrapped HikariDataSource would never
+ * be shut down with the context.
+ */
+final class MonitoredDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final Supplier<SqlStatementMonitor> monitor;
+
+    MonitoredDataSource(DataSource target, Supplier<SqlStatementMonitor> monitor) {
+        super(target);
+        this.monitor = monitor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return monitored(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return monitored(super.getConnection(username, password));
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable pool) {
+            pool.close();
+        }
+    }
+
+    private Connection monitored(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                MonitoredDataSource.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                new ConnectionHandler(connection, monitor.get()));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record ConnectionHandler(Connection connection, SqlStatementMonitor monitor) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = MonitoredDataSource.invoke(connection, method, args);
+            return switch (method.getName()) {
+                case "prepareStatement" -> statement(PreparedStatement.class, result, (String) args[0]);
+                case "prepareCall" -> statement(CallableStatement.class, result, (String) args[0]);
+                case "createStatement" -> statement(Statement.class, result, null);
+                default -> result;
+            };
+        }
+
+        private Object statement(Class<? extends Statement> type, Object statement, String sql) {
+            return Proxy.newProxyInstance(
+                    MonitoredDataSource.class.getClassLoader(),
+                    new Class<?>[] {type},
+                    new StatementHandler((Statement) statement, monitor, sql, sql != null ? monitor.shape(sql) : null));
+        }
+    }
+
+    private record StatementHandler(Statement statement, SqlStatementMonitor monitor, String sql, Shape shape)
+            implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!method.getName().startsWith("execute")) {
+                return MonitoredDataSource.invoke(statement, method, args);
+            }
+            // A plain Statement carries its SQL in the call; a batch of them is timed as one
+            String executed = sql;
+            Shape executedShape = shape;
+            if (executedShape == null) {
+                executed = args != null && args.length > 0 && args[0] instanceof String text ? text : "(statement batch)";
+                executedShape = monitor.shape(executed);
+            }
+            long start = System.nanoTime();
+            try {
+                return MonitoredDataSource.invoke(statement, method, args);
+            } finally {
+                monitor.executed(executedShape, executed, System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.ryanm.auth.config;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.ryanm.auth.service.PasswordHashingExecutor;
+import com.ryanm.auth.service.PasswordHashingExecutor.Operation;
+
+/**
+ * Runs only the BCrypt calls of a {@link PasswordEncoder} on the hashing pool.
+ * Everything around them (the user lookup in DaoAuthenticationProvider, the
+ * rehash save after login) stays on the request thread, so database work never
+ * holds a hashing thread or shows up in the hashing timers.
+ */
+final class PooledPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor hashing;
+
+    PooledPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor hashing) {
+        this.delegate = delegate;
+        this.hashing = hashing;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hashing.execute(Operation.ENCODE, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return hashing.execute(Operation.VERIFY, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // Only parses the stored hash, cheap enough for the caller's thread
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
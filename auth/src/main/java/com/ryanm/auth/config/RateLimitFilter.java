@@ -0,0 +1,228 @@
+package com.ryanm.auth.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles the public auth endpoints before any hashing or user lookup runs.
+ * Every call is charged to the client IP; login and signup are also charged to
+ * the username in the body, so one account cannot be stuffed from many
+ * addresses. Over the limit the answer is a fixed 429 with Retry-After.
+ *
+ * The client IP is getRemoteAddr(): behind a proxy, enable
+ * server.forward-headers-strategy so it reflects X-Forwarded-For.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    // Login and signup bodies are a few dozen bytes; anything past this is not buffered for a username
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+
+    private static final byte[] TOO_MANY_REQUESTS =
+            "{\"status\":\"error\",\"message\":\"Too many requests, try again later\",\"data\":null}"
+                    .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] TOO_LARGE =
+            "{\"status\":\"error\",\"message\":\"Request body too large\",\"data\":null}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Map<String, Limits> endpoints;
+
+    public RateLimitFilter(
+            ObjectMapper objectMapper,
+            @Value("${auth.rate-limit.enabled:true}") boolean enabled,
+            @Value("${auth.rate-limit.max-keys:100000}") long maxKeys,
+            @Value("${auth.rate-limit.login.per-ip:20/1m}") String loginPerIp,
+            @Value("${auth.rate-limit.login.per-username:5/1m}") String loginPerUsername,
+            @Value("${auth.rate-limit.signup.per-ip:5/1m}") String signupPerIp,
+            @Value("${auth.rate-limit.signup.per-username:3/1m}") String signupPerUsername,
+            @Value("${auth.rate-limit.refresh-token.per-ip:30/1m}") String refreshPerIp) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.endpoints = Map.of(
+                "/api/users/login", new Limits(
+                        TokenBucketLimiter.parse(loginPerIp, maxKeys),
+                        TokenBucketLimiter.parse(loginPerUsername, maxKeys)),
+                "/api/users/signup", new Limits(
+                        TokenBucketLimiter.parse(signupPerIp, maxKeys),
+                        TokenBucketLimiter.parse(signupPerUsername, maxKeys)),
+                // The refresh token is only verified later, so nothing in it is trusted as a key here
+                "/api/users/refresh-token", new Limits(
+                        TokenBucketLimiter.parse(refreshPerIp, maxKeys),
+                        null));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || !"POST".equals(request.getMethod()) || !endpoints.containsKey(path(request));
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        Limits limits = endpoints.get(path(request));
+
+        long wait = limits.perIp().tryAcquire(request.getRemoteAddr());
+        if (wait > 0) {
+            reject(response, wait);
+            return;
+        }
+
+        HttpServletRequest next = request;
+        if (limits.perUsername() != null) {
+            byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                write(response, HttpStatus.PAYLOAD_TOO_LARGE, TOO_LARGE);
+                return;
+            }
+            String username = username(body);
+            if (username != null) {
+                wait = limits.perUsername().tryAcquire(username);
+                if (wait > 0) {
+                    reject(response, wait);
+                    return;
+                }
+            }
+            // The controller still reads the body
+            next = new BufferedBodyRequest(request, body);
+        }
+        filterChain.doFilter(next, response);
+    }
+
+    // Case-folded so "Alice" and "alice" share a bucket; a body without one is left for the controller to reject
+    private String username(byte[] body) {
+        try {
+            JsonNode username = objectMapper.readTree(body).get("username");
+            return username != null && username.isTextual() && !username.asText().isBlank()
+                    ? username.asText().toLowerCase(Locale.ROOT)
+                    : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        response.setHeader("Retry-After", Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+        write(response, HttpStatus.TOO_MANY_REQUESTS, TOO_MANY_REQUESTS);
+    }
+
+    private static void write(HttpServletResponse response, HttpStatus status, byte[] body) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private record Limits(TokenBucketLimiter perIp, TokenBucketLimiter perUsername) {
+    }
+
+    // Replays a body the filter has already read
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return new ServletInputStream() {
+                private int position;
+
+                @Override
+                public int read() {
+                    return position < body.length ? body[position++] & 0xFF : -1;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    if (len == 0) {
+                        return 0;
+                    }
+                    if (position >= body.length) {
+                        return -1;
+                    }
+                    int n = Math.min(len, body.length - position);
+                    System.arraycopy(body, position, b, off, n);
+                    position += n;
+                    return n;
+                }
+
+                @Override
+                public int available() {
+                    return body.length - position;
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return position >= body.length;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The whole body is already in memory, so it is available at once and then complete
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.ryanm.auth.config;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import com.ryanm.auth.jfr.QueryStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every call on one Spring Data repository as "auth.repository", tagged
+ * with the repository, the method and whether it threw. The two timers of a
+ * method are registered on its first call and cached by Method, so later calls
+ * record without allocating; the repository proxy builds its MethodInvocation
+ * either way.
+ */
+final class RepositoryTimingInterceptor implements MethodInterceptor {
+
+    private static final int SUCCESS = 0;
+    private static final int ERROR = 1;
+
+    private final Supplier<MeterRegistry> registry;
+    private final String repository;
+    private final Map<Method, Timer[]> timers = new ConcurrentHashMap<>();
+
+    RepositoryTimingInterceptor(Supplier<MeterRegistry> registry, String repository) {
+        this.registry = registry;
+        this.repository = repository;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        Timer[] methodTimers = timers.get(method);
+        if (methodTimers == null) {
+            methodTimers = timers.computeIfAbsent(method, this::register);
+        }
+        long start = System.nanoTime();
+        Object result = null;
+        int outcome = ERROR;
+        try {
+            result = invocation.proceed();
+            outcome = SUCCESS;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            methodTimers[outcome].record(elapsed, TimeUnit.NANOSECONDS);
+            // Per-thread totals behind the queries/rows fields of the JFR request and task events
+            QueryStats.current().record(elapsed, result);
+        }
+    }
+
+    private Timer[] register(Method method) {
+        return new Timer[] {timer(method, "success"), timer(method, "error")};
+    }
+
+    private Timer timer(Method method, String outcome) {
+        return Timer.builder("auth.repository")
+                .tag("repository", repository)
+                .tag("method", method.getName())
+                .tag("outcome", outcome)
+                .description("Time spent in a repository call, including the query it runs")
+                .register(registry.get());
+    }
+}
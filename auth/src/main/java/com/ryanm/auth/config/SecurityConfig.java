@@ -1,7 +1,12 @@
 package com.ryanm.auth.config;
 
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -13,10 +18,13 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import com.ryanm.auth.service.PasswordHashingExecutor;
 import com.ryanm.auth.service.UserService;
 
 import lombok.RequiredArgsConstructor;
@@ -28,7 +36,22 @@ import lombok.RequiredArgsConstructor;
 public  class SecurityConfig {
 
     private final JwtFilter jwtFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final UserService userService; //injects the UserService to handle user details
+    private final PasswordHashingExecutor passwordHashing;
+
+    private static final String BCRYPT_ID = "bcrypt";
+
+    @Value("${auth.password.calibrate:true}")
+    private boolean calibrateStrength;
+    @Value("${auth.password.hash-budget:250ms}")
+    private Duration hashBudget;
+    @Value("${auth.password.min-strength:10}")
+    private int minStrength;
+    @Value("${auth.password.max-strength:14}")
+    private int maxStrength;
+    @Value("${auth.password.strength:10}")
+    private int fixedStrength;
 
     @Bean
     public UserDetailsService userDetailsService() {
@@ -39,13 +62,20 @@ public  class SecurityConfig {
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsService());
         provider.setPasswordEncoder(passwordEncoder()); //sets the PasswordEncoder to be used for encoding passwords
+        provider.setUserDetailsPasswordService(userService); //rehashes on login when the stored hash is at a different strength
         return provider; //returns the configured DaoAuthenticationProvider
     } //provides an authentication provider that uses the UserDetailsService to authenticate users
 
     @Bean 
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(); //returns a BCryptPasswordEncoder for password hashing
-    } //provides a password encoder bean to be used for encoding passwords
+        int strength = calibrateStrength
+                ? BCryptCostCalibrator.calibrate(hashBudget, minStrength, maxStrength)
+                : fixedStrength;
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(
+                BCRYPT_ID, Map.of(BCRYPT_ID, new CalibratedBCryptPasswordEncoder(strength)));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder()); //hashes stored before versioning have no {id} prefix
+        return new PooledPasswordEncoder(encoder, passwordHashing); //BCrypt itself runs on the bounded hashing pool
+    } //provides a versioned password encoder whose BCrypt strength fits the hash latency budget on this machine
 
     @Bean
      public AuthenticationManager authenticationManager(
@@ -61,10 +91,13 @@ public  class SecurityConfig {
                         .disable())
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers( "/api/users/signup", "/api/users/login",  "/api/users/refresh-token",  // 👈 Add refresh endpoint
-                    "/h2-console/**", "/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
+                    "/h2-console/**", "/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html",
+                    "/actuator/prometheus").permitAll() //scraped without a token
                         .anyRequest().authenticated())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .exceptionHandling(ex -> ex.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))) //missing, invalid, revoked or refresh bearer is a 401, not a 403
                 .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(rateLimitFilter, JwtFilter.class) //throttles login/signup/refresh before any hashing or lookup
                 .headers(headers -> headers.frameOptions(Customizer.withDefaults()))
                 ;
         return http.build();
@@ -0,0 +1,201 @@
+package com.ryanm.auth.config;
+
+import java.time.Duration;
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Every JDBC statement the application executes, seen through MonitoredDataSource.
+ * Statements are grouped by shape: the SQL with literals replaced by ? and IN
+ * lists collapsed, so the same query with different values or list lengths is
+ * one shape. Each shape has an "auth.sql" timer (a histogram, like every auth.*
+ * timer) tagged with its operation, first table and a stable id.
+ *
+ * Nothing is logged per statement. A statement over the slow threshold is
+ * logged with its SQL (never its bind values), and the log-sample-rate fraction
+ * of the rest is logged too, for a view of normal traffic.
+ *
+ * Within a request (opened by SqlRequestFilter) the SELECTs are counted per
+ * shape; a shape run n-plus-one.threshold times or more in one request is
+ * reported when the request ends, as one warning and one "auth.sql.n_plus_one"
+ * increment per shape (the counter appears with its first report).
+ */
+@Component
+public class SqlStatementMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementMonitor.class);
+
+    private static final Pattern COMMENT = Pattern.compile("--[^\n]*|/\\*.*?\\*/", Pattern.DOTALL);
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern TABLE = Pattern.compile("\\b(?:from|into|update)\\s+([\\w.\"]+)", Pattern.CASE_INSENSITIVE);
+
+    private final MeterRegistry registry;
+    private final long slowThreshold;
+    private final double sampleRate;
+    private final int nPlusOneThreshold;
+    private final int maxShapes;
+
+    // Raw SQL -> shape, so a statement is normalized once however often it is prepared
+    private final Cache<String, Shape> bySql;
+    private final Map<String, Shape> byNormalized = new ConcurrentHashMap<>();
+    private final Shape overflow;
+
+    private final ThreadLocal<RequestScope> requests = ThreadLocal.withInitial(RequestScope::new);
+
+    public SqlStatementMonitor(
+            MeterRegistry registry,
+            @Value("${auth.sql.slow-threshold:100ms}") Duration slowThreshold,
+            @Value("${auth.sql.log-sample-rate:0}") double sampleRate,
+            @Value("${auth.sql.n-plus-one.threshold:5}") int nPlusOneThreshold,
+            @Value("${auth.sql.max-shapes:500}") int maxShapes) {
+        this.registry = registry;
+        this.slowThreshold = slowThreshold.toNanos();
+        this.sampleRate = sampleRate;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.maxShapes = maxShapes;
+        this.bySql = Caffeine.newBuilder().maximumSize(maxShapes * 4L).build();
+        this.overflow = new Shape("other", "other", "other", "(shapes over auth.sql.max-shapes)", false);
+    }
+
+    // Resolved when a statement is prepared; executions then reuse it
+    Shape shape(String sql) {
+        if (sql == null) {
+            return overflow;
+        }
+        Shape shape = bySql.getIfPresent(sql);
+        if (shape == null) {
+            shape = bySql.get(sql, this::register);
+        }
+        return shape;
+    }
+
+    void executed(Shape shape, String sql, long elapsedNanos) {
+        shape.timer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (elapsedNanos >= slowThreshold) {
+            log.warn("Slow SQL ({} ms) [{}]: {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos), shape.id, sql);
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.info("SQL ({} us) [{}]: {}", TimeUnit.NANOSECONDS.toMicros(elapsedNanos), shape.id, sql);
+        }
+        if (shape.select) {
+            RequestScope request = requests.get();
+            if (request.open) {
+                request.count(shape);
+            }
+        }
+    }
+
+    void beginRequest() {
+        RequestScope request = requests.get();
+        request.selects.clear();
+        request.open = true;
+    }
+
+    // Reports the shapes the request repeated past the threshold
+    void endRequest(String method, String endpoint) {
+        RequestScope request = requests.get();
+        request.open = false;
+        if (request.selects.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<Shape, int[]> entry : request.selects.entrySet()) {
+            int executions = entry.getValue()[0];
+            if (executions >= nPlusOneThreshold) {
+                Shape shape = entry.getKey();
+                registry.counter("auth.sql.n_plus_one", "table", shape.table, "shape", shape.id).increment();
+                log.warn("Possible N+1 on {} {}: {} executions of [{}] {}",
+                        method, endpoint, executions, shape.id, shape.normalized);
+            }
+        }
+        request.selects.clear();
+    }
+
+    private Shape register(String sql) {
+        String normalized = normalize(sql);
+        Shape shape = byNormalized.get(normalized);
+        if (shape != null) {
+            return shape;
+        }
+        if (byNormalized.size() >= maxShapes) {
+            return overflow;
+        }
+        return byNormalized.computeIfAbsent(normalized, this::newShape);
+    }
+
+    private Shape newShape(String normalized) {
+        String id = Integer.toHexString(normalized.hashCode());
+        int space = normalized.indexOf(' ');
+        String operation = (space < 0 ? normalized : normalized.substring(0, space)).toLowerCase(Locale.ROOT);
+        Matcher table = TABLE.matcher(normalized);
+        Shape shape = new Shape(id, operation, table.find() ? table.group(1).toLowerCase(Locale.ROOT) : "none",
+                normalized, "select".equals(operation) || "with".equals(operation));
+        // Once per shape, so an id seen in a metric or warning can be looked up
+        log.info("SQL shape [{}]: {}", id, normalized);
+        return shape;
+    }
+
+    static String normalize(String sql) {
+        String normalized = COMMENT.matcher(sql).replaceAll(" ");
+        normalized = STRING_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+        return PARAMETER_LIST.matcher(normalized).replaceAll("(?...)");
+    }
+
+    final class Shape {
+
+        final String id;
+        final String table;
+        final String normalized;
+        final boolean select;
+        final Timer timer;
+
+        private Shape(String id, String operation, String table, String normalized, boolean select) {
+            this.id = id;
+            this.table = table;
+            this.normalized = normalized;
+            this.select = select;
+            this.timer = Timer.builder("auth.sql")
+                    .tag("operation", operation)
+                    .tag("table", table)
+                    .tag("shape", id)
+                    .description("JDBC statement execution time per query shape")
+                    .register(registry);
+        }
+    }
+
+    // SELECT executions per shape within the current request; reused by the thread
+    private static final class RequestScope {
+
+        final Map<Shape, int[]> selects = new IdentityHashMap<>();
+        boolean open;
+
+        void count(Shape shape) {
+            int[] executions = selects.get(shape);
+            if (executions == null) {
+                selects.put(shape, new int[] {1});
+            } else {
+                executions[0]++;
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.ryanm.auth.config;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.ryanm.auth.jfr.QueryStats;
+import com.ryanm.auth.jfr.TaskOperationEvent;
+import com.ryanm.auth.service.AuthenticatedUser;
+import com.ryanm.auth.service.TaskService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every public TaskService operation as "auth.tasks.service", tagged
+ * with the method name. The timer of a method is registered on its first call
+ * and cached by Method, so later calls record without allocating. When JFR is
+ * recording, each operation also commits a TaskOperationEvent with the user
+ * and the queries, rows and database time it ran.
+ */
+final class TaskServiceTimingInterceptor implements MethodInterceptor {
+
+    private final Supplier<MeterRegistry> registry;
+    private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+
+    TaskServiceTimingInterceptor(Supplier<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (method.getDeclaringClass() != TaskService.class) {
+            return invocation.proceed();
+        }
+        Timer timer = timers.get(method);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(method, this::register);
+        }
+        QueryStats.current().mark();
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            timer.record(elapsed, TimeUnit.NANOSECONDS);
+
+            TaskOperationEvent event = new TaskOperationEvent();
+            if (event.shouldCommit()) {
+                QueryStats stats = QueryStats.current();
+                event.operation = method.getName();
+                event.userId = currentUserId();
+                event.elapsed = elapsed;
+                event.queries = stats.queriesSinceMark();
+                event.rows = stats.rowsSinceMark();
+                event.databaseTime = stats.nanosSinceMark();
+                event.commit();
+            }
+        }
+    }
+
+    private Timer register(Method method) {
+        return Timer.builder("auth.tasks.service")
+                .tag("method", method.getName())
+                .description("Time spent in a TaskService operation, including its queries")
+                .register(registry.get());
+    }
+
+    // Never throws: this runs in the operation's finally block
+    private static long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user
+            ? user.getId()
+            : 0L;
+    }
+}
@@ -0,0 +1,73 @@
+package com.ryanm.auth.config;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Token buckets of "requests per period" keyed by a string (client IP,
+ * username). Each bucket is a single AtomicLong holding its theoretical
+ * arrival time (GCRA): a request is allowed when that time, pushed one
+ * emission interval forward, stays within one period of now. Allowing is one
+ * CAS; a rejected request changes nothing.
+ *
+ * Buckets live in a bounded Caffeine cache and are dropped once idle for a
+ * full period, by which time they would have refilled anyway.
+ */
+final class TokenBucketLimiter {
+
+    private final long interval;
+    private final long period;
+    private final Cache<String, AtomicLong> buckets;
+    private final LongSupplier nanoTime;
+
+    private TokenBucketLimiter(int requests, Duration period, long maxKeys, LongSupplier nanoTime) {
+        this.interval = Math.max(1, period.toNanos() / requests);
+        this.period = interval * requests;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(period)
+                .build();
+        this.nanoTime = nanoTime;
+    }
+
+    // "<requests>/<period>", e.g. "5/1m" or "20/30s"
+    static TokenBucketLimiter parse(String spec, long maxKeys) {
+        return parse(spec, maxKeys, System::nanoTime);
+    }
+
+    static TokenBucketLimiter parse(String spec, long maxKeys, LongSupplier nanoTime) {
+        int slash = spec.indexOf('/');
+        if (slash < 0) {
+            throw new IllegalArgumentException("Rate limit must look like <requests>/<period>: " + spec);
+        }
+        int requests = Integer.parseInt(spec.substring(0, slash).trim());
+        Duration period = DurationStyle.detectAndParse(spec.substring(slash + 1).trim());
+        if (requests < 1 || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Rate limit needs at least one request per positive period: " + spec);
+        }
+        return new TokenBucketLimiter(requests, period, maxKeys, nanoTime);
+    }
+
+    // 0 when the request is allowed, otherwise nanoseconds until the key may try again
+    long tryAcquire(String key) {
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        long now = nanoTime.getAsLong();
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + interval;
+            long wait = next - now - period;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+}
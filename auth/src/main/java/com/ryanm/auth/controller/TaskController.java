@@ -4,18 +4,29 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.ryanm.auth.dto.ApiResponse;
+import com.ryanm.auth.dto.tasks.SharedTaskPageResponse;
+import com.ryanm.auth.dto.tasks.TaskBatchResponse;
+import com.ryanm.auth.dto.tasks.TaskBatchUpdateRequest;
+import com.ryanm.auth.dto.tasks.TaskCursorPageResponse;
 import com.ryanm.auth.dto.tasks.TaskFilterRequest;
 import com.ryanm.auth.dto.tasks.TaskPageResponse;
 import com.ryanm.auth.dto.tasks.TaskRequest;
 import com.ryanm.auth.dto.tasks.TaskResponse;
+import com.ryanm.auth.dto.tasks.TaskShareRequest;
+import com.ryanm.auth.dto.tasks.TaskShareResponse;
 import com.ryanm.auth.model.Task.Priority;
 import com.ryanm.auth.model.TaskShare.SharePermission;
+import com.ryanm.auth.service.TaskBatchService;
+import com.ryanm.auth.service.TaskChangeVersions;
 import com.ryanm.auth.service.TaskService;
 
 import lombok.RequiredArgsConstructor;
 
 import java.util.List;
+import java.util.function.Supplier;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -26,6 +37,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 
 
 
@@ -35,6 +47,19 @@ import org.springframework.web.bind.annotation.RequestParam;
 @RequiredArgsConstructor
 public class TaskController {
     private final TaskService taskService;
+    private final TaskBatchService taskBatchService;
+
+    // Upper bound on one page of shared tasks
+    private static final int MAX_SHARED_PAGE_SIZE = 100;
+
+    // Upper bound on one page of search results, offset or cursor
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
+    // Upper bound on recipients of one share request
+    private static final int MAX_SHARE_RECIPIENTS = 100;
+
+    // Task reads carry an ETag: clients may keep the body but revalidate it with If-None-Match before reuse
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
 
     // Create a new task
     @PostMapping
@@ -52,10 +77,15 @@ public class TaskController {
     
     // Get all tasks
     @GetMapping
-    public ResponseEntity<ApiResponse<List<TaskResponse>>> getAllTasks() {
+    public ResponseEntity<ApiResponse<List<TaskResponse>>> getAllTasks(WebRequest webRequest) {
         try {
+            // If-None-Match is checked before any query; on a match Spring has already written the 304
+            if (webRequest.checkNotModified(taskService.getTasksETag("all"))) {
+                return null;
+            }
             List<TaskResponse> tasks = taskService.getAllTasks();
             return ResponseEntity.status(HttpStatus.OK)
+                                 .cacheControl(REVALIDATE)
                                  .body(ApiResponse.success("Tasks retrieved successfully", tasks));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error("An unexpected error occurred"));
@@ -63,11 +93,16 @@ public class TaskController {
     }
     
     @GetMapping("/{taskId}")
-    public ResponseEntity<ApiResponse<TaskResponse>> getTask(@PathVariable Long taskId) {
+    public ResponseEntity<ApiResponse<TaskResponse>> getTask(@PathVariable Long taskId, WebRequest webRequest) {
         try {
+            // Only the task's updatedAt is read to build the tag; a missing task falls through to the 404
+            String etag = taskService.getTaskETag(taskId);
+            if (etag != null && webRequest.checkNotModified(etag)) {
+                return null;
+            }
             TaskResponse task = taskService.getTaskById(taskId);
             
-            return ResponseEntity.ok(ApiResponse.success("Task retrieved successfully", task));
+            return ResponseEntity.ok().cacheControl(REVALIDATE).body(ApiResponse.success("Task retrieved successfully", task));
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -76,11 +111,14 @@ public class TaskController {
     }
 
     @PatchMapping("/{taskId}/toggle")
-    public ResponseEntity<ApiResponse<TaskResponse>> toggleTaskCompletion(@PathVariable Long taskId) {
+    public ResponseEntity<ApiResponse<TaskResponse>> toggleTaskCompletion(@PathVariable Long taskId, WebRequest webRequest) {
         try {
+            if (preconditionFailed(taskId, webRequest)) {
+                return null;
+            }
             TaskResponse updatedTask = taskService.toggleTaskCompletion(taskId);
             
-            return ResponseEntity.ok(ApiResponse.success("Task status updated successfully", updatedTask));
+            return ResponseEntity.ok().eTag(etagOf(updatedTask)).body(ApiResponse.success("Task status updated successfully", updatedTask));
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -92,11 +130,15 @@ public class TaskController {
     @PutMapping("/{taskId}")
     public ResponseEntity<ApiResponse<TaskResponse>> updateTask(
             @PathVariable Long taskId, 
-            @RequestBody TaskRequest request) {
+            @RequestBody TaskRequest request,
+            WebRequest webRequest) {
         try {
+            if (preconditionFailed(taskId, webRequest)) {
+                return null;
+            }
             TaskResponse updatedTask = taskService.updateTask(taskId, request);
             
-            return ResponseEntity.ok(ApiResponse.success("Task updated successfully", updatedTask));
+            return ResponseEntity.ok().eTag(etagOf(updatedTask)).body(ApiResponse.success("Task updated successfully", updatedTask));
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -104,8 +146,11 @@ public class TaskController {
         }
     }
     @DeleteMapping("/{taskId}")
-    public ResponseEntity<ApiResponse<String>> deleteTask(@PathVariable Long taskId) {
+    public ResponseEntity<ApiResponse<String>> deleteTask(@PathVariable Long taskId, WebRequest webRequest) {
         try {
+            if (preconditionFailed(taskId, webRequest)) {
+                return null;
+            }
             taskService.deleteTask(taskId);
             
             return ResponseEntity.ok(ApiResponse.success("Task deleted successfully", null));
@@ -116,10 +161,46 @@ public class TaskController {
         }
     }
 
+    // Create many tasks in one transaction
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<TaskBatchResponse>> createTasks(@RequestBody List<TaskRequest> requests) {
+        return batch(() -> taskBatchService.createTasks(requests));
+    }
+
+    @PutMapping("/batch")
+    public ResponseEntity<ApiResponse<TaskBatchResponse>> updateTasks(@RequestBody List<TaskBatchUpdateRequest> requests) {
+        return batch(() -> taskBatchService.updateTasks(requests));
+    }
+
+    @PatchMapping("/batch/toggle")
+    public ResponseEntity<ApiResponse<TaskBatchResponse>> toggleTasks(@RequestBody List<Long> taskIds) {
+        return batch(() -> taskBatchService.toggleTasks(taskIds));
+    }
+
+    // POST rather than DELETE: the ids travel in the body
+    @PostMapping("/batch/delete")
+    public ResponseEntity<ApiResponse<TaskBatchResponse>> deleteTasks(@RequestBody List<Long> taskIds) {
+        return batch(() -> taskBatchService.deleteTasks(taskIds));
+    }
+
+    // Per-item failures are reported in the body; only a rejected batch as a whole is an error status
+    private ResponseEntity<ApiResponse<TaskBatchResponse>> batch(Supplier<TaskBatchResponse> operation) {
+        try {
+            TaskBatchResponse result = operation.get();
+            return ResponseEntity.ok(ApiResponse.success(
+                "Batch processed: " + result.getSucceeded() + " succeeded, " + result.getFailed() + " failed", result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error("Batch failed: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<TaskPageResponse>> searchTasks(
+    public ResponseEntity<ApiResponse<?>> searchTasks(
             @RequestParam(required = false) String title,
             @RequestParam(required = false) String description,
+            @RequestParam(required = false) String search,
             @RequestParam(required = false) Boolean completed,
             @RequestParam(required = false) Priority priority,
             @RequestParam(required = false) String dueBefore,
@@ -127,24 +208,42 @@ public class TaskController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDirection) {
+            @RequestParam(defaultValue = "desc") String sortDirection,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean cursor,
+            WebRequest webRequest) {
         
         try {
+            // Clamped before the cursor query adds its look-ahead row, which would overflow at Integer.MAX_VALUE
+            int pageSize = Math.min(size, MAX_SEARCH_PAGE_SIZE);
             TaskFilterRequest filterRequest = new TaskFilterRequest();
             filterRequest.setTitle(title);
             filterRequest.setDescription(description);
+            filterRequest.setSearch(search);
             filterRequest.setCompleted(completed);
             filterRequest.setPriority(priority);
             filterRequest.setDueBefore(dueBefore);
             filterRequest.setDueAfter(dueAfter);
             filterRequest.setPage(page);
-            filterRequest.setSize(size);
+            filterRequest.setSize(pageSize);
             filterRequest.setSortBy(sortBy);
             filterRequest.setSortDirection(sortDirection);
-            
+            filterRequest.setAfter(after);
+
+            if (webRequest.checkNotModified(taskService.getTasksETag("search", cursor, title, description, search,
+                    completed, priority, dueBefore, dueAfter, page, pageSize, sortBy, sortDirection, after))) {
+                return null;
+            }
+
+            // Cursor mode: requested explicitly, or implied by an "after" token
+            if (cursor || after != null) {
+                TaskCursorPageResponse result = taskService.getTasksAfterCursor(filterRequest);
+                return ResponseEntity.ok().cacheControl(REVALIDATE).body(ApiResponse.success("Tasks retrieved successfully", result));
+            }
+
             TaskPageResponse result = taskService.getTasksWithFilters(filterRequest);
             
-            return ResponseEntity.ok(ApiResponse.success("Tasks retrieved successfully", result));
+            return ResponseEntity.ok().cacheControl(REVALIDATE).body(ApiResponse.success("Tasks retrieved successfully", result));
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -152,17 +251,29 @@ public class TaskController {
         }
     }
     
-    // Share a task
+    // Share a task with one or more users. Recipients come as a JSON list of {username, permission};
+    // the older ?username=&permission= form still shares with a single user
     @PostMapping("/{taskId}/share")
-    public ResponseEntity<ApiResponse<?>> shareTask( 
+    public ResponseEntity<ApiResponse<TaskShareResponse>> shareTask( 
             @PathVariable Long taskId, 
-            @RequestParam String username, 
-            @RequestParam SharePermission permission) {
+            @RequestParam(required = false) String username, 
+            @RequestParam(required = false) SharePermission permission,
+            @RequestBody(required = false) List<TaskShareRequest> recipients) {
+        if (recipients == null) {
+            TaskShareRequest recipient = new TaskShareRequest();
+            recipient.setUsername(username);
+            recipient.setPermission(permission);
+            recipients = List.of(recipient);
+        }
+        if (recipients.isEmpty() || recipients.size() > MAX_SHARE_RECIPIENTS) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error("Share between 1 and " + MAX_SHARE_RECIPIENTS + " recipients per request"));
+        }
         try {
-            taskService.shareTask(taskId, username, permission);
+            TaskShareResponse result = taskService.shareTask(taskId, recipients);
             return ResponseEntity.ok(
-                ApiResponse.success("Task shared successfully", 
-                    null)
+                ApiResponse.success("Task shared: " + result.getSucceeded() + " succeeded, " + result.getFailed() + " failed", 
+                    result)
             );
         }catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -172,11 +283,13 @@ public class TaskController {
 
     // View tasks that have been shared with the user
     @GetMapping("/shared")
-    public ResponseEntity<ApiResponse<List<TaskResponse>>> getSharedTasks() {
+    public ResponseEntity<ApiResponse<SharedTaskPageResponse>> getSharedTasks(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
         try {
             return ResponseEntity.ok(
                 ApiResponse.success("Shared tasks retrieved successfully", 
-                    taskService.getSharedTasks())
+                    taskService.getSharedTasks(page, Math.min(size, MAX_SHARED_PAGE_SIZE)))
             );
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -190,14 +303,28 @@ public class TaskController {
             @PathVariable Long taskId, 
             @RequestBody TaskRequest request) {
                 try {
-                    taskService.editTask(taskId, request);
+                    // getTaskById is owner-only, so answer with the edited task itself
                     return ResponseEntity.ok(
                         ApiResponse.success("Shared task edited successfully", 
-                            taskService.getTaskById(taskId))
+                            taskService.editTask(taskId, request))
                     );
                 } catch (Exception e) {
                     return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(ApiResponse.error("Failed to edit shared task: " + e.getMessage()));
                 }
         }
+
+    // If-Match / If-None-Match on a write: a stale tag gets 412 from Spring before the change is made.
+    // Checked only when the client sends one, so plain writes pay no extra query
+    private boolean preconditionFailed(Long taskId, WebRequest webRequest) {
+        if (webRequest.getHeader(HttpHeaders.IF_MATCH) == null && webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) == null) {
+            return false;
+        }
+        String etag = taskService.getTaskETag(taskId);
+        return etag != null && webRequest.checkNotModified(etag);
+    }
+
+    private static String etagOf(TaskResponse task) {
+        return TaskChangeVersions.taskETag(task.getId(), task.getUpdatedAt());
+    }
 }
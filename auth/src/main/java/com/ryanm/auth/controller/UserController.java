@@ -10,10 +10,19 @@ import com.ryanm.auth.dto.SignupRequest;
 import com.ryanm.auth.dto.UserResponseData;
 import com.ryanm.auth.model.UserModel;
 import com.ryanm.auth.repository.UserRepository;
+import com.ryanm.auth.service.CurrentUserContext;
+import com.ryanm.auth.service.HashingCapacityExceededException;
+import com.ryanm.auth.service.InvalidRefreshTokenException;
 import com.ryanm.auth.service.JwtService;
+import com.ryanm.auth.service.PrincipalCache;
+import com.ryanm.auth.service.RefreshTokenService;
+import com.ryanm.auth.service.RefreshTokenService.RotatedRefreshToken;
+import com.ryanm.auth.service.TokenRevocationList;
+import com.ryanm.auth.service.VerifiedToken;
 
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -26,6 +35,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 
 
 @RestController
@@ -40,6 +50,10 @@ public class UserController {
 
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final RefreshTokenService refreshTokens;
+    private final CurrentUserContext currentUser;
+    private final TokenRevocationList revocationList;
+    private final PrincipalCache principalCache;
 
     @PostMapping("/signup")
     public ResponseEntity<ApiResponse<UserResponseData>> signup(@RequestBody SignupRequest signupRequest) {
@@ -54,6 +68,7 @@ public class UserController {
             UserModel user = new UserModel();
             user.setUsername(signupRequest.getUsername());
             user.setEmail(signupRequest.getEmail());
+            // The encoder runs BCrypt on the dedicated hashing pool, never on the request thread
             user.setPassword(passwordEncoder.encode(signupRequest.getPassword()));
 
             // Save user
@@ -63,10 +78,7 @@ public class UserController {
                 savedUser.getUsername(), 
                 savedUser.getId()
             );
-            String refreshToken = jwtService.generateRefreshToken(
-                savedUser.getUsername(), 
-                savedUser.getId()
-            );
+            String refreshToken = refreshTokens.issue(savedUser.getId(), savedUser.getUsername());
             
             // Create response data (without password)
             UserResponseData responseData = new UserResponseData(savedUser.getId(), 
@@ -79,6 +91,8 @@ public class UserController {
             return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponse.success("User created successfully", responseData));
                 
+        } catch (HashingCapacityExceededException e) {
+            return hashingUnavailable(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponse.error("Failed to create user: " + e.getMessage()));
@@ -92,6 +106,7 @@ public class UserController {
                 req.getUsername(), 
                 req.getPassword()
             );
+            // User lookup and any rehash save run here; only the BCrypt compare goes to the hashing pool
             Authentication authentication = authenticationManager.authenticate(authToken);
 
             UserDetails userDetails = (UserDetails) authentication.getPrincipal();
@@ -102,10 +117,7 @@ public class UserController {
                 user.getUsername(), 
                 user.getId()
             );
-            String refreshToken = jwtService.generateRefreshToken(
-                user.getUsername(), 
-                user.getId()
-            );
+            String refreshToken = refreshTokens.issue(user.getId(), user.getUsername());
 
 
             UserResponseData responseData = new UserResponseData(user.getId(), 
@@ -116,6 +128,8 @@ public class UserController {
         } catch (BadCredentialsException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body(ApiResponse.error("Invalid username or password"));
+        } catch (HashingCapacityExceededException e) {
+            return hashingUnavailable(e);
         }
         catch (Exception e) {
              return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -126,21 +140,19 @@ public class UserController {
     @PostMapping("/refresh-token")
     public ResponseEntity<ApiResponse<UserResponseData>> refreshToken(@RequestBody RefreshTokenRequest request) {
         try {
-            // Generate new access token using refresh token
-            String newAccessToken = jwtService.refreshAccessToken(request.getRefreshToken());
-            
-            // Extract user info from refresh token
-            String username = jwtService.extractUsername(request.getRefreshToken());
-            UserModel user = repository.findByUsername(username)
+            // Single use: the presented token is spent and its successor returned
+            RotatedRefreshToken rotated = refreshTokens.rotate(request.getRefreshToken());
+            String newAccessToken = jwtService.generateToken(rotated.username(), rotated.userId());
+
+            UserModel user = repository.findByUsername(rotated.username())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-            // Create response (keep the same refresh token)
             UserResponseData userData = new UserResponseData(
                 user.getId(), 
                 user.getUsername(), 
                 user.getEmail(),
                 newAccessToken,
-                request.getRefreshToken()
+                rotated.refreshToken()
             );
             
 
@@ -152,6 +164,55 @@ public class UserController {
         }
     }
 
+    // Signs the caller out everywhere: every refresh token they hold stops working
+    @PostMapping("/refresh-token/revoke-all")
+    public ResponseEntity<ApiResponse<Integer>> revokeAllRefreshTokens() {
+        try {
+            int revoked = refreshTokens.revokeAll(currentUser.getUserId());
+            return ResponseEntity.ok(ApiResponse.success("Refresh tokens revoked", revoked));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Failed to revoke refresh tokens: " + e.getMessage()));
+        }
+    }
+
+    // Ends this session: the access token is revoked now, and the refresh token too when one is sent
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<Void>> logout(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+            @RequestBody(required = false) RefreshTokenRequest request) {
+        try {
+            // JwtFilter already accepted this token, so it verifies from cache
+            VerifiedToken token = jwtService.verify(authorization.substring(7));
+            if (request != null && request.getRefreshToken() != null) {
+                refreshTokens.revoke(request.getRefreshToken(), currentUser.getUserId());
+            }
+            revocationList.revoke(token);
+            return ResponseEntity.ok(ApiResponse.success("Logged out"));
+        } catch (InvalidRefreshTokenException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error("Logout failed: " + e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Logout failed: " + e.getMessage()));
+        }
+    }
+
+    // Ends every session of the caller: all access tokens issued so far and all refresh tokens
+    @PostMapping("/logout-all")
+    public ResponseEntity<ApiResponse<Void>> logoutAll() {
+        try {
+            Long userId = currentUser.getUserId();
+            refreshTokens.revokeAll(userId);
+            revocationList.revokeUser(userId);
+            principalCache.invalidate(userId);
+            return ResponseEntity.ok(ApiResponse.success("Logged out of all sessions"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Logout failed: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/profile")
     public ResponseEntity<ApiResponse<UserResponseData>> getProfile() {
         try {
@@ -199,4 +260,11 @@ public class UserController {
                 .body(ApiResponse.error("Failed to retrieve profile: " + e.getMessage()));
         }
     }
+
+    // Saturated hashing pool: cheap 503 so clients back off instead of queueing on Tomcat
+    private <T> ResponseEntity<ApiResponse<T>> hashingUnavailable(HashingCapacityExceededException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(ApiResponse.error(e.getMessage()));
+    }
 }
@@ -0,0 +1,26 @@
+package com.ryanm.auth.dto.tasks;
+
+import java.time.LocalDateTime;
+
+import com.ryanm.auth.model.Task.Priority;
+import com.ryanm.auth.model.TaskShare.SharePermission;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// A task shared with the current user, with who owns it and what the share allows
+@Data
+@AllArgsConstructor
+public class SharedTaskResponse {
+    private Long id;
+    private String title;
+    private String description;
+    private Boolean completed;
+    private Priority priority;
+    private LocalDateTime dueDate;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private String ownerUsername;
+    private SharePermission permission;
+    private LocalDateTime sharedAt;
+}
@@ -0,0 +1,18 @@
+package com.ryanm.auth.dto.tasks;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TaskBatchItemResult {
+    private int index;            // Position of the item in the request
+    private Long id;              // Task id, when known
+    private Status status;
+    private String error;         // Why the item was rejected, if it was
+    private TaskResponse task;    // The task after the change (create/update/toggle)
+
+    public enum Status {
+        CREATED, UPDATED, DELETED, NOT_FOUND, INVALID
+    }
+}
@@ -0,0 +1,14 @@
+package com.ryanm.auth.dto.tasks;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class TaskBatchResponse {
+    private List<TaskBatchItemResult> results;    // One entry per request item, in request order
+    private int succeeded;
+    private int failed;
+}
@@ -0,0 +1,15 @@
+package com.ryanm.auth.dto.tasks;
+
+import com.ryanm.auth.model.Task.Priority;
+
+import lombok.Data;
+
+// One item of PUT /api/tasks/batch: the task to update and its new fields
+@Data
+public class TaskBatchUpdateRequest {
+    private Long id;
+    private String title;
+    private String description;
+    private Priority priority;
+    private String dueDate; // ISO 8601 format
+}
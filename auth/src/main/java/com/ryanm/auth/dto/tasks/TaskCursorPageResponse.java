@@ -0,0 +1,14 @@
+package com.ryanm.auth.dto.tasks;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class TaskCursorPageResponse {
+    private List<TaskResponse> tasks;    // Task data
+    private int pageSize;                // Number of items requested
+    private String nextCursor;           // Pass as "after" for the next page; null on the last page
+}
@@ -18,4 +18,7 @@ public class TaskFilterRequest {
     private Integer size = 10;     
     private String sortBy = "createdAt";  
     private String sortDirection = "desc";
+
+    // Keyset pagination: token from a previous nextCursor; page is ignored when set
+    private String after;
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.ryanm.auth.dto.tasks;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class TaskShareResponse {
+    private Long taskId;
+    private List<TaskShareResult> results;  // One per recipient, in request order
+    private int succeeded;
+    private int failed;
+}
@@ -0,0 +1,20 @@
+package com.ryanm.auth.dto.tasks;
+
+import com.ryanm.auth.model.TaskShare.SharePermission;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TaskShareResult {
+    private int index;                  // Position of the recipient in the request
+    private String username;
+    private Status status;
+    private SharePermission permission; // The recipient's permission after the request, if shared
+    private String error;               // Why the recipient was rejected, if it was
+
+    public enum Status {
+        SHARED, UPDATED, UNCHANGED, USER_NOT_FOUND, INVALID
+    }
+}
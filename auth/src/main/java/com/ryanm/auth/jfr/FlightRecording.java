@@ -0,0 +1,75 @@
+package com.ryanm.auth.jfr;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Optional in-process recording with the bundled jfr/auth.jfc profile, kept as a
+ * rolling window (max-age / max-size) and written to the destination when the
+ * JVM exits. Off by default: the events cost nothing until a
+ * recording enables them, whether this one or one started with jcmd.
+ */
+@Component
+public class FlightRecording {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightRecording.class);
+
+    private static final String PROFILE = "jfr/auth.jfc";
+
+    private final boolean enabled;
+    private final Path destination;
+    private final Duration maxAge;
+    private final DataSize maxSize;
+
+    private Recording recording;
+
+    public FlightRecording(
+            @Value("${auth.jfr.recording.enabled:false}") boolean enabled,
+            @Value("${auth.jfr.recording.destination:auth.jfr}") Path destination,
+            @Value("${auth.jfr.recording.max-age:30m}") Duration maxAge,
+            @Value("${auth.jfr.recording.max-size:256MB}") DataSize maxSize) {
+        this.enabled = enabled;
+        this.destination = destination;
+        this.maxAge = maxAge;
+        this.maxSize = maxSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || recording != null) {
+            return;
+        }
+        try (Reader profile = new InputStreamReader(
+                new ClassPathResource(PROFILE).getInputStream(), StandardCharsets.UTF_8)) {
+            recording = new Recording(Configuration.create(profile));
+            // Written by JFR's own exit hook, which runs after the last request has been recorded
+            recording.setDestination(destination);
+        } catch (IOException | ParseException e) {
+            throw new RuntimeException("Could not start the flight recording with " + PROFILE, e);
+        }
+        recording.setName("auth");
+        recording.setToDisk(true);
+        recording.setDumpOnExit(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSize.toBytes());
+        recording.start();
+        log.info("Flight recording started with {}, written to {} on exit", PROFILE, destination.toAbsolutePath());
+    }
+}
@@ -0,0 +1,212 @@
+package com.ryanm.auth.jfr;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Offline report of a .jfr dump: per endpoint latency percentiles, auth phases,
+ * database work and allocation, then the same for task operations and tokens.
+ * Runs without the application context:
+ *
+ *   java -cp auth/target/classes com.ryanm.auth.jfr.JfrSummary auth.jfr
+ */
+public final class JfrSummary {
+
+    private JfrSummary() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: JfrSummary <recording.jfr>");
+            System.exit(2);
+        }
+        Map<String, RequestStats> requests = new TreeMap<>();
+        Map<String, TaskOperationStats> taskOperations = new TreeMap<>();
+        Map<String, TokenStats> tokens = new TreeMap<>();
+
+        try (RecordingFile file = new RecordingFile(Path.of(args[0]))) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                switch (event.getEventType().getName()) {
+                    case "com.ryanm.auth.Request" -> requests
+                            .computeIfAbsent(event.getString("method") + " " + event.getString("endpoint"), k -> new RequestStats())
+                            .add(event);
+                    case "com.ryanm.auth.TaskOperation" -> taskOperations
+                            .computeIfAbsent(event.getString("operation"), k -> new TaskOperationStats())
+                            .add(event);
+                    case "com.ryanm.auth.Token" -> tokens
+                            .computeIfAbsent(event.getString("operation"), k -> new TokenStats())
+                            .add(event);
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        PrintStream out = System.out;
+        out.println("Requests (latency in ms, phases and db as mean ms, allocation in KiB)");
+        out.printf("%-48s %7s %6s %8s %8s %8s %8s %7s %7s %7s %7s %8s %7s %7s %9s %9s%n",
+                "endpoint", "count", "errors", "p50", "p95", "p99", "max",
+                "parse", "revoke", "load", "valid", "db", "queries", "rows", "alloc", "alloc95");
+        requests.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, RequestStats> e) -> e.getValue().latency.sum()).reversed())
+                .forEach(e -> {
+                    RequestStats s = e.getValue();
+                    out.printf("%-48s %7d %6d %8.2f %8.2f %8.2f %8.2f %7.3f %7.3f %7.3f %7.3f %8.3f %7.1f %7.1f %9s %9s%n",
+                            e.getKey(), s.latency.size(), s.errors,
+                            millis(s.latency.percentile(0.50)), millis(s.latency.percentile(0.95)),
+                            millis(s.latency.percentile(0.99)), millis(s.latency.percentile(1.0)),
+                            millis(s.parse.mean()), millis(s.revocation.mean()),
+                            millis(s.userLoad.mean()), millis(s.validate.mean()),
+                            millis(s.database.mean()), s.queries.mean(), s.rows.mean(),
+                            kib(s.allocated, s.allocated.mean()), kib(s.allocated, s.allocated.percentile(0.95)));
+                });
+
+        out.println();
+        out.println("Task operations (ms, db as mean ms)");
+        out.printf("%-24s %7s %8s %8s %8s %8s %8s %7s %7s%n",
+                "operation", "count", "p50", "p95", "p99", "max", "db", "queries", "rows");
+        taskOperations.forEach((operation, s) ->
+                out.printf("%-24s %7d %8.2f %8.2f %8.2f %8.2f %8.3f %7.1f %7.1f%n",
+                        operation, s.latency.size(),
+                        millis(s.latency.percentile(0.50)), millis(s.latency.percentile(0.95)),
+                        millis(s.latency.percentile(0.99)), millis(s.latency.percentile(1.0)),
+                        millis(s.database.mean()), s.queries.mean(), s.rows.mean()));
+
+        out.println();
+        out.println("Tokens (ms)");
+        out.printf("%-24s %7s %8s %8s %8s %8s %8s%n",
+                "operation", "count", "cached", "invalid", "p50", "p99", "max");
+        tokens.forEach((operation, s) ->
+                out.printf("%-24s %7d %8d %8d %8.3f %8.3f %8.3f%n",
+                        operation, s.latency.size(), s.cached, s.invalid,
+                        millis(s.latency.percentile(0.50)), millis(s.latency.percentile(0.99)),
+                        millis(s.latency.percentile(1.0))));
+    }
+
+    private static double millis(double nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    // Allocation is unknown on virtual threads, so a group may have no allocation samples at all
+    private static String kib(Column allocated, double bytes) {
+        return allocated.size() == 0 ? "-" : String.format("%.1f", bytes / 1024.0);
+    }
+
+    // One com.ryanm.auth.Request per HTTP request
+    private static final class RequestStats {
+
+        final Column latency = new Column();
+        final Column parse = new Column();
+        final Column revocation = new Column();
+        final Column userLoad = new Column();
+        final Column validate = new Column();
+        final Column database = new Column();
+        final Column queries = new Column();
+        final Column rows = new Column();
+        // Only the requests whose allocation was measured
+        final Column allocated = new Column();
+        int errors;
+
+        void add(RecordedEvent event) {
+            latency.add(event.getDuration().toNanos());
+            parse.add(event.getLong("parseTime"));
+            revocation.add(event.getLong("revocationTime"));
+            userLoad.add(event.getLong("userLoadTime"));
+            validate.add(event.getLong("validateTime"));
+            database.add(event.getLong("databaseTime"));
+            queries.add(event.getLong("queries"));
+            rows.add(event.getLong("rows"));
+            long bytes = event.getLong("allocated");
+            if (bytes >= 0) {
+                allocated.add(bytes);
+            }
+            if (event.getInt("status") >= 400) {
+                errors++;
+            }
+        }
+    }
+
+    // One com.ryanm.auth.TaskOperation per TaskService call
+    private static final class TaskOperationStats {
+
+        final Column latency = new Column();
+        final Column database = new Column();
+        final Column queries = new Column();
+        final Column rows = new Column();
+
+        void add(RecordedEvent event) {
+            latency.add(event.getLong("elapsed"));
+            database.add(event.getLong("databaseTime"));
+            queries.add(event.getLong("queries"));
+            rows.add(event.getLong("rows"));
+        }
+    }
+
+    // One com.ryanm.auth.Token per token generated or verified
+    private static final class TokenStats {
+
+        final Column latency = new Column();
+        int cached;
+        int invalid;
+
+        void add(RecordedEvent event) {
+            latency.add(event.getDuration().toNanos());
+            if (event.getBoolean("cached")) {
+                cached++;
+            }
+            if (!event.getBoolean("valid")) {
+                invalid++;
+            }
+        }
+    }
+
+    // Values of one measurement, grown by doubling
+    private static final class Column {
+
+        private long[] values = new long[16];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long sum() {
+            long sum = 0;
+            for (int i = 0; i < size; i++) {
+                sum += values[i];
+            }
+            return sum;
+        }
+
+        double mean() {
+            return size == 0 ? 0 : (double) sum() / size;
+        }
+
+        // Nearest-rank percentile, over a sorted copy
+        double percentile(double p) {
+            if (size == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(p * size);
+            return sorted[Math.max(0, Math.min(size, rank) - 1)];
+        }
+    }
+}
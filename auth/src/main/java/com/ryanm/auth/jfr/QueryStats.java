@@ -0,0 +1,89 @@
+package com.ryanm.auth.jfr;
+
+import java.util.Collection;
+import java.util.Optional;
+
+import org.springframework.data.domain.Slice;
+
+/**
+ * Running per-thread totals of repository calls: count, rows and time. Scopes
+ * (a request, a TaskService operation) read the totals when they start and
+ * report the difference when they end, so nothing is reset or allocated per
+ * call.
+ */
+public final class QueryStats {
+
+    private static final ThreadLocal<QueryStats> CURRENT = ThreadLocal.withInitial(QueryStats::new);
+
+    private long queries;
+    private long rows;
+    private long nanos;
+
+    // Start of the innermost TaskService operation on this thread
+    private long markQueries;
+    private long markRows;
+    private long markNanos;
+
+    private QueryStats() {
+    }
+
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    public void record(long elapsedNanos, Object result) {
+        queries++;
+        rows += rows(result);
+        nanos += elapsedNanos;
+    }
+
+    public long queries() {
+        return queries;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    public long nanos() {
+        return nanos;
+    }
+
+    public void mark() {
+        markQueries = queries;
+        markRows = rows;
+        markNanos = nanos;
+    }
+
+    public long queriesSinceMark() {
+        return queries - markQueries;
+    }
+
+    public long rowsSinceMark() {
+        return rows - markRows;
+    }
+
+    public long nanosSinceMark() {
+        return nanos - markNanos;
+    }
+
+    // Rows a repository result stands for; an int is the affected count of a modifying query
+    private static long rows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Integer affected) {
+            return affected;
+        }
+        return 1;
+    }
+}
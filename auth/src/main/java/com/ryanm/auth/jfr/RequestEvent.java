@@ -0,0 +1,79 @@
+package com.ryanm.auth.jfr;
+
+import java.lang.management.ManagementFactory;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One HTTP request, from JwtFilter to the response. The event's own duration is
+ * the full request; the auth phases are JwtFilter's stages, and the database
+ * fields add up every repository call the request made.
+ */
+@Name("com.ryanm.auth.Request")
+@Label("HTTP Request")
+@Category({"Auth API", "Requests"})
+@Description("An API request with its authentication phases, queries and allocation")
+@StackTrace(false)
+public class RequestEvent extends Event {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Label("Method")
+    public String method;
+
+    @Label("Endpoint")
+    @Description("Matched handler pattern, e.g. /api/tasks/{taskId}, or the path when nothing matched")
+    public String endpoint;
+
+    @Label("Status")
+    public int status;
+
+    @Label("User Id")
+    @Description("Authenticated user, 0 when the request carried no valid token")
+    public long userId;
+
+    @Label("Token Parse Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long parseTime;
+
+    @Label("Revocation Check Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long revocationTime;
+
+    @Label("User Load Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long userLoadTime;
+
+    @Label("Token Validate Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long validateTime;
+
+    @Label("Queries")
+    public long queries;
+
+    @Label("Rows")
+    @Description("Rows returned or affected by the request's repository calls")
+    public long rows;
+
+    @Label("Database Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long databaseTime;
+
+    @Label("Allocated")
+    @Description("Bytes allocated by the request thread, -1 where the JVM cannot tell (virtual threads)")
+    @DataAmount
+    public long allocated;
+
+    // Running total for the current thread, or -1 when unsupported
+    public static long currentThreadAllocatedBytes() {
+        return THREADS.isThreadAllocatedMemoryEnabled() ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+}
@@ -0,0 +1,42 @@
+package com.ryanm.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One TaskService operation. Committed when the operation returns, so the
+ * event's timestamp is its end and the elapsed field its duration.
+ */
+@Name("com.ryanm.auth.TaskOperation")
+@Label("Task Operation")
+@Category({"Auth API", "Tasks"})
+@Description("A TaskService call with its queries and rows")
+@StackTrace(false)
+public class TaskOperationEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("User Id")
+    public long userId;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    public long elapsed;
+
+    @Label("Queries")
+    public long queries;
+
+    @Label("Rows")
+    @Description("Rows returned or affected by the operation's repository calls")
+    public long rows;
+
+    @Label("Database Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long databaseTime;
+}
@@ -0,0 +1,37 @@
+package com.ryanm.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JwtService signing a token or verifying one; the event's duration is the work.
+ */
+@Name("com.ryanm.auth.Token")
+@Label("JWT Operation")
+@Category({"Auth API", "Tokens"})
+@Description("Access or refresh token generation, or token verification")
+@StackTrace(false)
+public class TokenEvent extends Event {
+
+    public static final String GENERATE_ACCESS = "generate-access";
+    public static final String GENERATE_REFRESH = "generate-refresh";
+    public static final String VERIFY = "verify";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("User Id")
+    public long userId;
+
+    @Label("Cached")
+    @Description("Verification answered from the verified-token cache")
+    public boolean cached;
+
+    @Label("Valid")
+    @Description("False when verification rejected the token")
+    public boolean valid;
+}
@@ -0,0 +1,40 @@
+package com.ryanm.auth.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "refresh_tokens")
+@Getter @Setter
+@NoArgsConstructor
+public class RefreshToken {
+    // Also the token's jti; pooled so the id is known at persist, before the JWT is signed
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_tokens_seq")
+    @SequenceGenerator(name = "refresh_tokens_seq", sequenceName = "refresh_tokens_seq", allocationSize = 50)
+    private Long id;
+
+    // Random per login; only ever matched together with user_id
+    @Column(name = "family_id", nullable = false)
+    private Long familyId;
+
+    // Plain id rather than a UserModel association: the store never needs the user row
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Enumerated(EnumType.ORDINAL)
+    @Column(nullable = false, columnDefinition = "TINYINT")
+    private Status status;
+
+    public enum Status {
+        ACTIVE,   // Can be exchanged once
+        ROTATED,  // Already exchanged; presenting it again is reuse
+        REVOKED   // Family revoked by reuse detection or revoke-all
+    }
+}
@@ -1,11 +1,12 @@
 package com.ryanm.auth.model;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.HashSet;
-import java.util.Optional;
 import java.util.Set;
 
-import com.ryanm.auth.model.TaskShare.SharePermission;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -14,12 +15,16 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name = "tasks")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tasks")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Task {
+    // Pooled sequence rather than IDENTITY so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)   
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_seq")
+    @SequenceGenerator(name = "tasks_seq", sequenceName = "tasks_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -40,15 +45,20 @@ public class Task {
     private LocalDateTime createdAt;
 
     @Column(name = "updated_at")
-    private LocalDateTime updatedAt = LocalDateTime.now();
+    private LocalDateTime updatedAt = now();
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
+        createdAt = now();
     }
 
     @PreUpdate
     protected void onUpdate() {
-        updatedAt = LocalDateTime.now();
+        updatedAt = now();
+    }
+
+    // At the column's microsecond precision, so a saved task's ETag matches the one built from the stored row
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
     }
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -63,31 +73,6 @@ public class Task {
     private Boolean isShareable = false; 
 
     @OneToMany(mappedBy = "task", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "task-share-ids")
     private Set<TaskShare> shares = new HashSet<>();
-
-    public boolean hasAccess(UserModel user) {
-        // Owner always has access
-        if (this.user.equals(user)) {
-            return true;
-        }
-        
-        // Check if task is shared with user
-        return shares.stream()
-            .anyMatch(share -> share.getSharedWith().equals(user));
-    }
-
-    public SharePermission  getPermissionForUser(UserModel user) {
-        // Owner has SHARE permission (highest)
-        if (this.user.equals(user)) {
-            return SharePermission.MANAGE;
-        }
-        
-        // Find user's permission in shares
-        return shares.stream()
-            .filter(share -> share.getSharedWith().equals(user))
-            .map(TaskShare::getPermission)
-            .findFirst()
-            .orElse(null);
-    }
-    
 }
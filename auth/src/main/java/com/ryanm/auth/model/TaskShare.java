@@ -1,18 +1,25 @@
 package com.ryanm.auth.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "task_shares")
+@Table(name = "task_shares",
+       uniqueConstraints = @UniqueConstraint(name = "uk_task_shares_task_user", columnNames = {"task_id", "shared_with"}))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "task-shares")
 @Getter @Setter
 @NoArgsConstructor
 public class TaskShare {
+    // Pooled sequence rather than IDENTITY so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_shares_seq")
+    @SequenceGenerator(name = "task_shares_seq", sequenceName = "task_shares_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,42 @@
+package com.ryanm.auth.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ryanm.auth.model.RefreshToken;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    // Claims the token for one exchange: 1 when it was active, unexpired and belongs to the user, else 0
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.status = com.ryanm.auth.model.RefreshToken.Status.ROTATED " +
+           "WHERE t.id = :id AND t.userId = :userId AND t.familyId = :familyId " +
+           "AND t.status = com.ryanm.auth.model.RefreshToken.Status.ACTIVE AND t.expiresAt > :now")
+    int markRotated(@Param("id") Long id, @Param("userId") Long userId,
+                    @Param("familyId") Long familyId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.status = com.ryanm.auth.model.RefreshToken.Status.REVOKED " +
+           "WHERE t.userId = :userId AND t.familyId = :familyId AND t.status = com.ryanm.auth.model.RefreshToken.Status.ACTIVE")
+    int revokeFamily(@Param("userId") Long userId, @Param("familyId") Long familyId);
+
+    @Query("SELECT DISTINCT t.familyId FROM RefreshToken t " +
+           "WHERE t.userId = :userId AND t.status = com.ryanm.auth.model.RefreshToken.Status.ACTIVE")
+    List<Long> findActiveFamilyIds(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.status = com.ryanm.auth.model.RefreshToken.Status.REVOKED " +
+           "WHERE t.userId = :userId AND t.status = com.ryanm.auth.model.RefreshToken.Status.ACTIVE")
+    int revokeAllByUserId(@Param("userId") Long userId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
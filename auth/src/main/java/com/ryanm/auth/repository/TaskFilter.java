@@ -0,0 +1,35 @@
+package com.ryanm.auth.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import com.ryanm.auth.model.Task;
+
+/**
+ * Optional search predicates over one owner's tasks; null fields are not applied.
+ * {@code search} is the title-or-description-contains predicate; {@code ids},
+ * when set, restricts it to the candidates the search index found, so SQL only
+ * re-checks those rows.
+ */
+public record TaskFilter(
+        Long userId,
+        String title,
+        String description,
+        Boolean completed,
+        Task.Priority priority,
+        LocalDateTime dueBefore,
+        LocalDateTime dueAfter,
+        String search,
+        Collection<Long> ids) {
+
+    public TaskFilter(
+            Long userId,
+            String title,
+            String description,
+            Boolean completed,
+            Task.Priority priority,
+            LocalDateTime dueBefore,
+            LocalDateTime dueAfter) {
+        this(userId, title, description, completed, priority, dueBefore, dueAfter, null, null);
+    }
+}
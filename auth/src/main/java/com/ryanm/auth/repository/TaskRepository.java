@@ -1,26 +1,59 @@
 package com.ryanm.auth.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.ryanm.auth.dto.tasks.TaskResponse;
 import com.ryanm.auth.model.Task;
 import com.ryanm.auth.model.UserModel;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
-    List<Task> findByUserOrderByCreatedAtDesc(UserModel user);
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositoryCustom {
+    String TASK_RESPONSE = "new com.ryanm.auth.dto.tasks.TaskResponse("
+        + "t.id, t.title, t.description, t.completed, t.priority, t.dueDate, t.createdAt, t.updatedAt)";
+
+    // Explicit t.user.id: the derived form joins user_model and filters on the join, which scans tasks
+    @Query("SELECT t FROM Task t WHERE t.user.id = :userId ORDER BY t.createdAt DESC, t.id DESC")
+    List<Task> findByUserIdOrderByCreatedAtDesc(@Param("userId") Long userId);
     List<Task> findByUserAndCompleted(UserModel user, boolean completed);
     List<Task> findByUserAndPriority(UserModel user, Task.Priority priority);
     List<Task> findByUserAndDueDate(UserModel user, LocalDateTime dueDate);
-    Optional<Task> findByIdAndUser(Long id, UserModel user);
+    @Query("SELECT t FROM Task t WHERE t.id = :id AND t.user.id = :userId")
+    Optional<Task> findByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    // Batch endpoints: resolve every item's task in one statement
+    @Query("SELECT t FROM Task t WHERE t.user.id = :userId AND t.id IN :ids")
+    List<Task> findOwnedByIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Query("SELECT t.id FROM Task t WHERE t.user.id = :userId AND t.id IN :ids")
+    List<Long> findOwnedIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Task t WHERE t.id IN :ids")
+    int deleteAllByIds(@Param("ids") Collection<Long> ids);
+
+    // Read-path projections: rows go straight into TaskResponse without managed entities
+    @Query("SELECT " + TASK_RESPONSE + " FROM Task t WHERE t.user.id = :userId ORDER BY t.createdAt DESC, t.id DESC")
+    List<TaskResponse> findResponsesByUserId(@Param("userId") Long userId);
+
+    // Query cache: GET /api/tasks/{id} repeats this exact lookup; any write to tasks invalidates it
+    @Query("SELECT " + TASK_RESPONSE + " FROM Task t WHERE t.id = :id AND t.user.id = :userId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<TaskResponse> findResponseByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
 
     Page<Task> findByUserOrderByCreatedAtDesc(UserModel user, Pageable pageable);
     Page<Task> findByUserAndCompleted(UserModel user, boolean completed, Pageable pageable);
@@ -35,22 +68,14 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
 
     long countByUser(UserModel user);
     long countByUserAndCompleted(UserModel user, boolean completed);
-    @Query("SELECT t FROM Task t WHERE t.user = :user " +
-           "AND (:title IS NULL OR LOWER(t.title) LIKE LOWER(CONCAT('%', :title, '%'))) " +
-           "AND (:description IS NULL OR LOWER(t.description) LIKE LOWER(CONCAT('%', :description, '%'))) " +
-           "AND (:completed IS NULL OR t.completed = :completed) " +
-           "AND (:priority IS NULL OR t.priority = :priority) " +
-           "AND (:dueBefore IS NULL OR t.dueDate <= :dueBefore) " +
-           "AND (:dueAfter IS NULL OR t.dueDate >= :dueAfter)")
-    Page<Task> findTasksWithFilters(
-        @Param("user") UserModel user,
-        @Param("title") String title,
-        @Param("description") String description,
-        @Param("completed") Boolean completed,
-        @Param("priority") Task.Priority priority,
-        @Param("dueBefore") LocalDateTime dueBefore,
-        @Param("dueAfter") LocalDateTime dueAfter,
-        Pageable pageable
-    );
-}
 
+    // Conditional GET of one task: the timestamp its ETag is built from, without loading the task
+    @Query("SELECT t.updatedAt FROM Task t WHERE t.id = :id AND t.user.id = :userId")
+    Optional<LocalDateTime> findUpdatedAtByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query("SELECT new com.ryanm.auth.repository.TaskSearchRow(t.id, t.user.id, t.title, t.description) FROM Task t")
+    List<TaskSearchRow> findAllSearchRows();
+
+    @Query("SELECT new com.ryanm.auth.repository.TaskSearchRow(t.id, t.user.id, t.title, t.description) FROM Task t WHERE t.user.id = :userId")
+    List<TaskSearchRow> findSearchRowsByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,25 @@
+package com.ryanm.auth.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import com.ryanm.auth.dto.tasks.TaskResponse;
+
+public interface TaskRepositoryCustom {
+
+    // Filtered, offset-paged search; only the filters that are set reach the SQL
+    Page<TaskResponse> findTaskResponses(TaskFilter filter, Pageable pageable);
+
+    // Keyset page: rows strictly after (afterValue, afterId) in (sortBy, id) order; first page when afterId is null
+    List<TaskResponse> findTaskResponsesAfter(
+        TaskFilter filter,
+        String sortBy,
+        Sort.Direction direction,
+        Comparable<?> afterValue,
+        Long afterId,
+        int limit
+    );
+}
@@ -0,0 +1,166 @@
+package com.ryanm.auth.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import com.ryanm.auth.dto.tasks.TaskResponse;
+import com.ryanm.auth.model.Task;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Read-side query shapes that do not fit a derived or string query: only the predicates
+ * that are actually set are rendered (no "param IS NULL OR ..." catch-all, which
+ * keeps the planner off the composite indexes), and keyset pages seek past the
+ * last (sortKey, id) instead of counting and skipping rows.
+ */
+class TaskRepositoryImpl implements TaskRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<TaskResponse> findTaskResponses(TaskFilter filter, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskResponse> query = cb.createQuery(TaskResponse.class);
+        Root<Task> task = query.from(Task.class);
+        query.select(response(cb, task))
+            .where(filterPredicates(cb, task, filter).toArray(Predicate[]::new))
+            .orderBy(QueryUtils.toOrders(pageable.getSort(), task, cb));
+
+        List<TaskResponse> content = entityManager.createQuery(query)
+            .setFirstResult((int) pageable.getOffset())
+            .setMaxResults(pageable.getPageSize())
+            .getResultList();
+
+        // The count only runs when the page alone cannot tell the total
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(filter));
+    }
+
+    private long count(TaskFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Task> task = query.from(Task.class);
+        query.select(cb.count(task))
+            .where(filterPredicates(cb, task, filter).toArray(Predicate[]::new));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @Override
+    public List<TaskResponse> findTaskResponsesAfter(
+            TaskFilter filter,
+            String sortBy,
+            Sort.Direction direction,
+            Comparable<?> afterValue,
+            Long afterId,
+            int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskResponse> query = cb.createQuery(TaskResponse.class);
+        Root<Task> task = query.from(Task.class);
+
+        List<Predicate> predicates = filterPredicates(cb, task, filter);
+        Path<Long> id = task.get("id");
+        boolean byId = "id".equals(sortBy);
+        if (afterId != null) {
+            predicates.add(byId
+                ? (direction.isAscending() ? cb.greaterThan(id, afterId) : cb.lessThan(id, afterId))
+                : seekPredicate(cb, task.get(sortBy), id, direction, afterValue, afterId));
+        }
+
+        List<Order> order = new ArrayList<>(2);
+        if (!byId) {
+            order.add(direction.isAscending() ? cb.asc(task.get(sortBy)) : cb.desc(task.get(sortBy)));
+        }
+        order.add(direction.isAscending() ? cb.asc(id) : cb.desc(id));
+
+        query.select(response(cb, task))
+            .where(predicates.toArray(Predicate[]::new))
+            .orderBy(order);
+
+        return entityManager.createQuery(query)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+
+    // Selects straight into the response DTO: no entity instances, snapshots or lazy collections
+    private static CompoundSelection<TaskResponse> response(CriteriaBuilder cb, Root<Task> task) {
+        return cb.construct(TaskResponse.class,
+            task.get("id"),
+            task.get("title"),
+            task.get("description"),
+            task.get("completed"),
+            task.get("priority"),
+            task.get("dueDate"),
+            task.get("createdAt"),
+            task.get("updatedAt"));
+    }
+
+    // Owner first, then one equality/range per set filter, so the (user_id, ...) indexes apply
+    static List<Predicate> filterPredicates(CriteriaBuilder cb, Root<Task> task, TaskFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(task.get("user").get("id"), filter.userId()));
+        if (filter.title() != null) {
+            predicates.add(cb.like(cb.lower(task.get("title")), "%" + filter.title().toLowerCase() + "%"));
+        }
+        if (filter.description() != null) {
+            predicates.add(cb.like(cb.lower(task.get("description")), "%" + filter.description().toLowerCase() + "%"));
+        }
+        if (filter.ids() != null) {
+            predicates.add(task.get("id").in(filter.ids()));
+        }
+        if (filter.search() != null) {
+            String pattern = "%" + filter.search().toLowerCase() + "%";
+            predicates.add(cb.or(
+                cb.like(cb.lower(task.get("title")), pattern),
+                cb.like(cb.lower(task.get("description")), pattern)));
+        }
+        if (filter.completed() != null) {
+            predicates.add(cb.equal(task.get("completed"), filter.completed()));
+        }
+        if (filter.priority() != null) {
+            predicates.add(cb.equal(task.get("priority"), filter.priority()));
+        }
+        if (filter.dueBefore() != null) {
+            predicates.add(cb.lessThanOrEqualTo(task.get("dueDate"), filter.dueBefore()));
+        }
+        if (filter.dueAfter() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(task.get("dueDate"), filter.dueAfter()));
+        }
+        return predicates;
+    }
+
+    // (key, id) > (afterValue, afterId) for ascending order, < for descending
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate seekPredicate(
+            CriteriaBuilder cb,
+            Path<?> key,
+            Path<Long> id,
+            Sort.Direction direction,
+            Comparable afterValue,
+            Long afterId) {
+        Expression<Comparable> sortKey = (Expression<Comparable>) key;
+        if (direction.isAscending()) {
+            return cb.or(
+                cb.greaterThan(sortKey, afterValue),
+                cb.and(cb.equal(sortKey, afterValue), cb.greaterThan(id, afterId)));
+        }
+        return cb.or(
+            cb.lessThan(sortKey, afterValue),
+            cb.and(cb.equal(sortKey, afterValue), cb.lessThan(id, afterId)));
+    }
+}
@@ -0,0 +1,7 @@
+package com.ryanm.auth.repository;
+
+/**
+ * The columns the search index needs, loaded without materialising Task entities.
+ */
+public record TaskSearchRow(Long id, Long userId, String title, String description) {
+}
@@ -1,14 +1,49 @@
 package com.ryanm.auth.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.ryanm.auth.dto.tasks.SharedTaskResponse;
 import com.ryanm.auth.model.TaskShare;
+import com.ryanm.auth.model.TaskShare.SharePermission;
 import com.ryanm.auth.model.UserModel;
 
+import java.util.Collection;
 import java.util.List;
 
 
 public interface TaskShareRepository extends JpaRepository<TaskShare, Long> {
     List<TaskShare> findBySharedWith(UserModel sharedWith);
-    void deleteByTaskIdAndSharedWith(Long taskId, UserModel sharedWith);
+    List<TaskShare> findBySharedWithId(Long sharedWithId);
+
+    // Shares, their tasks and owners in one round trip, newest share first
+    @Query(value = "SELECT new com.ryanm.auth.dto.tasks.SharedTaskResponse(" +
+                   "t.id, t.title, t.description, t.completed, t.priority, t.dueDate, t.createdAt, t.updatedAt, " +
+                   "o.username, s.permission, s.sharedAt) " +
+                   "FROM TaskShare s JOIN s.task t JOIN t.user o " +
+                   "WHERE s.sharedWith.id = :userId " +
+                   "ORDER BY s.sharedAt DESC, s.id DESC",
+           countQuery = "SELECT COUNT(s) FROM TaskShare s WHERE s.sharedWith.id = :userId")
+    Page<SharedTaskResponse> findSharedTasks(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT s FROM TaskShare s WHERE s.task.id = :taskId AND s.sharedWith.id IN :userIds")
+    List<TaskShare> findByTaskIdAndSharedWithIds(@Param("taskId") Long taskId, @Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT new com.ryanm.auth.repository.TaskShareRow(s.task.id, s.sharedWith.id, s.permission) FROM TaskShare s")
+    List<TaskShareRow> findAllShareRows();
+
+    @Query("SELECT s.permission FROM TaskShare s WHERE s.task.id = :taskId AND s.sharedWith.id = :userId")
+    List<SharePermission> findPermissions(@Param("taskId") Long taskId, @Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM TaskShare s WHERE s.task.id IN :taskIds")
+    int deleteAllByTaskIds(@Param("taskIds") Collection<Long> taskIds);
+
+    @Transactional
+    long deleteByTaskIdAndSharedWith(Long taskId, UserModel sharedWith);
 }
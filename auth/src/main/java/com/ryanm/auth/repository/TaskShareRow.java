@@ -0,0 +1,9 @@
+package com.ryanm.auth.repository;
+
+import com.ryanm.auth.model.TaskShare.SharePermission;
+
+/**
+ * One share as the permission index stores it, loaded without materialising entities.
+ */
+public record TaskShareRow(Long taskId, Long userId, SharePermission permission) {
+}
@@ -1,6 +1,7 @@
 package com.ryanm.auth.repository;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
@@ -8,6 +9,7 @@ import org.springframework.stereotype.Repository;
 import com.ryanm.auth.model.UserModel;
 
 @Repository
-public interface UserRepository extends JpaRepository<UserModel, Long> {
-    Optional<UserModel> findByUsername(String username);
+public interface UserRepository extends JpaRepository<UserModel, Long>, UserRepositoryCustom {
+    // Every recipient of a share in one IN query
+    List<UserModel> findByUsernameIn(Collection<String> usernames);
 }
@@ -0,0 +1,11 @@
+package com.ryanm.auth.repository;
+
+import java.util.Optional;
+
+import com.ryanm.auth.model.UserModel;
+
+public interface UserRepositoryCustom {
+
+    // Natural-id lookup: served from the second-level cache when the username has been seen
+    Optional<UserModel> findByUsername(String username);
+}
@@ -0,0 +1,28 @@
+package com.ryanm.auth.repository;
+
+import java.util.Optional;
+
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ryanm.auth.model.UserModel;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Transactional so the unwrapped Session outlives the call even outside a request (e.g. in JwtFilter).
+    // Not read-only: that would leave the user read-only in an open-in-view session, and a later
+    // save in the same request (password rehash on login) would be skipped by dirty checking.
+    @Override
+    @Transactional
+    public Optional<UserModel> findByUsername(String username) {
+        return entityManager.unwrap(Session.class)
+            .bySimpleNaturalId(UserModel.class)
+            .loadOptional(username);
+    }
+}
@@ -0,0 +1,55 @@
+package com.ryanm.auth.service;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.ryanm.auth.model.UserModel;
+import com.ryanm.auth.repository.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Resolves the id of the user behind the current request. JWT-authenticated
+ * requests carry it on the {@link AuthenticatedUser} principal; any other
+ * principal is looked up once and the id is remembered for the rest of the request.
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrentUserContext {
+
+    private static final String USER_ID_ATTRIBUTE = CurrentUserContext.class.getName() + ".userId";
+
+    private final UserRepository userRepository;
+
+    public Long getUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            throw new RuntimeException("User not authenticated");
+        }
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.getId();
+        }
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null
+                && attributes.getAttribute(USER_ID_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Long userId) {
+            return userId;
+        }
+
+        Long userId = userRepository.findByUsername(authentication.getName())
+            .map(UserModel::getId)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        if (attributes != null) {
+            attributes.setAttribute(USER_ID_ATTRIBUTE, userId, RequestAttributes.SCOPE_REQUEST);
+        }
+        return userId;
+    }
+
+    // Uninitialized proxy for associations; does not hit the database
+    public UserModel getUserReference() {
+        return userRepository.getReferenceById(getUserId());
+    }
+}
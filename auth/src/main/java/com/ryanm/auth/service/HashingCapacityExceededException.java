@@ -0,0 +1,12 @@
+package com.ryanm.auth.service;
+
+/**
+ * Thrown when the password-hashing pool cannot accept or finish more work in
+ * time. Controllers answer it with 503 and a Retry-After header.
+ */
+public class HashingCapacityExceededException extends RuntimeException {
+
+    public HashingCapacityExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.ryanm.auth.service;
+
+/**
+ * Thrown when a refresh token cannot be exchanged: bad signature, expired,
+ * revoked, or already used. Controllers answer it with 401.
+ */
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
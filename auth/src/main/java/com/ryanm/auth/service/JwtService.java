@@ -1,137 +1,204 @@
 package com.ryanm.auth.service;
 
-import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.ryanm.auth.jfr.TokenEvent;
+
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secretKey;
+    // Access-token jti: issue time in millis, then a per-millisecond sequence in the low bits
+    static final int JTI_SEQUENCE_BITS = 20;
+
+    private final long jwtExpiration;
+    private final AtomicLong lastJti = new AtomicLong();
+
+    // Built once: deriving the key and parser per call dominated token verification
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+
+    // Verified tokens keyed by SHA-256 of the compact token, never outliving the token's exp
+    private final Cache<ByteBuffer, VerifiedToken> verifiedTokens;
+
+    public JwtService(
+            @Value("${jwt.secret}") String secretKey,
+            @Value("${jwt.expiration}") long jwtExpiration,
+            @Value("${jwt.cache.max-size:10000}") long cacheMaxSize,
+            @Value("${jwt.cache.ttl:5m}") Duration cacheTtl) {
+        this.jwtExpiration = jwtExpiration;
+        this.signingKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new TokenExpiry(cacheTtl))
+                .build();
+    }
 
-    @Value("${jwt.expiration}")
-    private long jwtExpiration;
-    
-    @Value("${jwt.refresh-token.expiration}")
-    private long refreshExpiration;
-    
     // Generate token for a user
     public String generateToken(String username, Long userId) {
+        TokenEvent event = new TokenEvent();
+        event.begin();
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
-        return createToken(claims, username);
+        String token = createToken(claims, username);
+        commit(event, TokenEvent.GENERATE_ACCESS, userId, false, true);
+        return token;
     }
-    
+
     // Create the actual token
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
         .claims(claims)
+        .id(Long.toString(nextJti()))
         .subject(subject)
         .issuedAt(new Date(System.currentTimeMillis()))
         .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
-        .signWith(getSigningKey())
+        .signWith(signingKey)
                 .compact();
     }
-    
-    // Get the secret key for signing
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secretKey.getBytes());
+
+    // Unique and increasing within this process, so revocation can key on it and compare it with a cut-off time
+    private long nextJti() {
+        long floor = System.currentTimeMillis() << JTI_SEQUENCE_BITS;
+        return lastJti.accumulateAndGet(floor, (last, min) -> Math.max(last + 1, min));
+    }
+
+    // When an access token with this jti was issued, in epoch millis
+    static long jtiIssuedAt(long jti) {
+        return jti >>> JTI_SEQUENCE_BITS;
     }
-    
+
+    // Verify signature and expiry once and return the claims view, served from cache for repeat tokens
+    public VerifiedToken verify(String token) {
+        TokenEvent event = new TokenEvent();
+        event.begin();
+        ByteBuffer key = hash(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null && !cached.isExpired(Instant.now())) {
+            commit(event, TokenEvent.VERIFY, cached.userId(), true, true);
+            return cached;
+        }
+
+        // Throws JwtException on a bad signature, malformed token or past exp
+        VerifiedToken verified;
+        try {
+            verified = VerifiedToken.from(parser.parseSignedClaims(token).getPayload());
+        } catch (RuntimeException e) {
+            commit(event, TokenEvent.VERIFY, null, false, false);
+            throw e;
+        }
+        verifiedTokens.put(key, verified);
+        commit(event, TokenEvent.VERIFY, verified.userId(), false, true);
+        return verified;
+    }
+
     // Extract username from token
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).subject();
     }
-    
+
     // Extract user ID from token
     public Long extractUserId(String token) {
-        return extractClaim(token, claims -> claims.get("userId", Long.class));
+        return verify(token).userId();
     }
-    
+
     // Extract expiration date from token
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-    
-    // Extract any claim from token
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-    
-    // Extract all claims from token
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return Date.from(verify(token).expiration());
     }
-    
-    // Check if token is expired
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-    
+
     // Validate token
     public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
+        return verify(token).isValidFor(username);
     }
 
-    // Generate refresh token
-    public String generateRefreshToken(String username, Long userId) {
+    // Generate refresh token; its lifetime and ids come from the RefreshTokenService row it mirrors
+    public String generateRefreshToken(String username, Long userId, Long tokenId, Long familyId, Instant expiresAt) {
+        TokenEvent event = new TokenEvent();
+        event.begin();
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
         claims.put("tokenType", "refresh"); // Mark as refresh token
-        return createRefreshToken(claims, username);
-    }
-
-    private String createRefreshToken(Map<String, Object> claims, String subject) {
-        return Jwts.builder()
+        claims.put("familyId", familyId);
+        String token = Jwts.builder()
                 .claims(claims)
-                .subject(subject)
+                .id(Long.toString(tokenId))
+                .subject(username)
                 .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + refreshExpiration))  // 👈 7 days
-                .signWith(getSigningKey())
+                .expiration(Date.from(expiresAt))
+                .signWith(signingKey)
                 .compact();
+        commit(event, TokenEvent.GENERATE_REFRESH, userId, false, true);
+        return token;
     }
 
     public Boolean isRefreshToken(String token) {
         try {
-            String tokenType = extractClaim(token, claims -> claims.get("tokenType", String.class));
-            return "refresh".equals(tokenType);
+            return verify(token).isRefreshToken();
         } catch (Exception e) {
             return false;
         }
     }
 
-    // 👈 NEW: Refresh access token using refresh token
-    public String refreshAccessToken(String refreshToken) {
-        if (!isRefreshToken(refreshToken)) {
-            throw new RuntimeException("Invalid refresh token");
+    // JFR event for this call, when a recording has it enabled
+    private static void commit(TokenEvent event, String operation, Long userId, boolean cached, boolean valid) {
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.userId = userId != null ? userId : 0L;
+            event.cached = cached;
+            event.valid = valid;
+            event.commit();
         }
-        
-        String username = extractUsername(refreshToken);
-        Long userId = extractUserId(refreshToken);
-        
-        if (isTokenExpired(refreshToken)) {
-            throw new RuntimeException("Refresh token expired");
+    }
+
+    private static ByteBuffer hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
-        
-        // Generate new access token
-        return generateToken(username, userId);
     }
 
+    // Cache entries live for the configured TTL, capped at the token's own expiry
+    private record TokenExpiry(Duration ttl) implements Expiry<ByteBuffer, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, VerifiedToken token, long currentTime) {
+            long untilExp = Duration.between(Instant.now(), token.expiration()).toNanos();
+            return Math.max(0, Math.min(ttl.toNanos(), untilExp));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
 
-}
\ No newline at end of file
+        @Override
+        public long expireAfterRead(ByteBuffer key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
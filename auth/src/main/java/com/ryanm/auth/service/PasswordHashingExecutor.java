@@ -0,0 +1,134 @@
+package com.ryanm.auth.service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Runs BCrypt work (password checks at login, encoding at signup and rehash) on a small dedicated
+ * pool with a bounded queue, so a credential storm saturates this pool instead
+ * of the servlet workers. When the queue is full, or a result does not arrive
+ * within the timeout, callers get a {@link HashingCapacityExceededException}
+ * straight away.
+ */
+@Service
+public class PasswordHashingExecutor implements DisposableBean {
+
+    public enum Operation { ENCODE, VERIFY }
+
+    private final ThreadPoolExecutor executor;
+    private final long timeoutNanos;
+    private final Timer encodeTimer;
+    private final Timer verifyTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejected;
+
+    public PasswordHashingExecutor(
+            MeterRegistry registry,
+            @Value("${auth.hashing.threads:0}") int threads,
+            @Value("${auth.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${auth.hashing.timeout:5s}") Duration timeout) {
+        // Default leaves half the cores to the rest of the API
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutNanos = timeout.toNanos();
+
+        this.encodeTimer = Timer.builder("auth.hashing.latency")
+                .tag("operation", "encode")
+                .description("Time spent hashing a password on the hashing pool")
+                .register(registry);
+        this.verifyTimer = Timer.builder("auth.hashing.latency")
+                .tag("operation", "verify")
+                .description("Time spent checking a password against its hash on the hashing pool")
+                .register(registry);
+        this.queueWaitTimer = Timer.builder("auth.hashing.queue.wait")
+                .description("Time a hashing task waited for a pool thread")
+                .register(registry);
+        this.rejected = Counter.builder("auth.hashing.rejected")
+                .description("Hashing tasks refused because the pool was saturated or timed out")
+                .register(registry);
+        Gauge.builder("auth.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("Hashing tasks waiting for a pool thread")
+                .register(registry);
+        Gauge.builder("auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Pool threads currently hashing")
+                .register(registry);
+    }
+
+    public <T> T execute(Operation operation, Callable<T> task) {
+        Timer timer = operation == Operation.ENCODE ? encodeTimer : verifyTimer;
+        long submittedAt = System.nanoTime();
+
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                queueWaitTimer.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.call();
+                } finally {
+                    timer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new HashingCapacityExceededException("Authentication service is busy, please retry shortly");
+        }
+
+        try {
+            return future.get(timeoutNanos - (System.nanoTime() - submittedAt), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new HashingCapacityExceededException("Authentication service is busy, please retry shortly");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new HashingCapacityExceededException("Interrupted while waiting for password hashing");
+        } catch (ExecutionException e) {
+            // Surface the task's own exception (e.g. BadCredentialsException) unchanged
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
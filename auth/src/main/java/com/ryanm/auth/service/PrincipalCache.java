@@ -0,0 +1,63 @@
+package com.ryanm.auth.service;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ryanm.auth.repository.UserRepository;
+
+/**
+ * Bounded, expiring cache of JWT principals keyed by the token's userId claim.
+ * A miss confirms the account still exists with one primary-key lookup; after
+ * that the principal is served from memory until it expires or is invalidated.
+ */
+@Service
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+    private final Cache<Long, AuthenticatedUser> principals;
+
+    public PrincipalCache(
+            UserRepository userRepository,
+            @Value("${auth.principal-cache.max-size:10000}") long maxSize,
+            @Value("${auth.principal-cache.ttl:10m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    // Returns the principal described by the token, or null if the account is gone or renamed
+    public AuthenticatedUser resolve(VerifiedToken token) {
+        if (token.userId() == null || token.subject() == null) {
+            return null;
+        }
+        AuthenticatedUser principal = principals.getIfPresent(token.userId());
+        if (principal == null) {
+            // Loaded outside the cache's compute: a JDBC call under its bin monitor would pin a virtual thread
+            principal = load(token.userId());
+            if (principal != null) {
+                principals.put(principal.getId(), principal);
+            }
+        }
+        if (principal == null || !principal.getUsername().equals(token.subject())) {
+            return null;
+        }
+        return principal;
+    }
+
+    // Account changes (password rehash, logout everywhere) call this so the next request reloads
+    public void invalidate(Long userId) {
+        principals.invalidate(userId);
+    }
+
+    private AuthenticatedUser load(Long userId) {
+        return userRepository.findById(userId)
+                .map(user -> new AuthenticatedUser(user.getId(), user.getUsername()))
+                .orElse(null);
+    }
+}
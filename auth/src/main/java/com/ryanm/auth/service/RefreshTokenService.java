@@ -0,0 +1,177 @@
+package com.ryanm.auth.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ryanm.auth.model.RefreshToken;
+import com.ryanm.auth.model.RefreshToken.Status;
+import com.ryanm.auth.repository.RefreshTokenRepository;
+
+/**
+ * Server-side refresh tokens. Every login starts a family; each exchange marks
+ * the presented token ROTATED and issues the next one in the same family, so a
+ * token works exactly once. Presenting a ROTATED token again means it was
+ * copied: the whole family is revoked, logging out both the thief and the
+ * owner. Revoke-all ends every family of a user.
+ *
+ * The JWT carries the row id (jti) and family id, so a successful exchange is
+ * one conditional UPDATE by primary key plus the insert of its successor, with
+ * no read. Tokens and families known to be dead are kept in memory, so replays
+ * of used or revoked tokens are refused without a query; the database stays
+ * the authority for everything else.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final RefreshTokenRepository repository;
+    private final JwtService jwtService;
+    private final Duration lifetime;
+
+    // Ids of ROTATED tokens and of revoked families; entries outlive any token they could match
+    private final Cache<Long, Boolean> rotatedTokens;
+    private final Cache<Long, Boolean> revokedFamilies;
+
+    public RefreshTokenService(
+            RefreshTokenRepository repository,
+            JwtService jwtService,
+            @Value("${jwt.refresh-token.expiration}") long refreshExpiration,
+            @Value("${auth.refresh-tokens.index.max-size:100000}") long indexMaxSize) {
+        this.repository = repository;
+        this.jwtService = jwtService;
+        this.lifetime = Duration.ofMillis(refreshExpiration);
+        this.rotatedTokens = Caffeine.newBuilder()
+                .maximumSize(indexMaxSize)
+                .expireAfterWrite(lifetime)
+                .build();
+        this.revokedFamilies = Caffeine.newBuilder()
+                .maximumSize(indexMaxSize)
+                .expireAfterWrite(lifetime)
+                .build();
+    }
+
+    // First token of a new family, for signup and login
+    @Transactional
+    public String issue(Long userId, String username) {
+        return issue(userId, username, null);
+    }
+
+    // Exchanges a refresh token for its successor; reuse is committed as a family revocation before the 401
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public RotatedRefreshToken rotate(String refreshToken) {
+        VerifiedToken verified;
+        try {
+            verified = jwtService.verify(refreshToken);
+        } catch (Exception e) {
+            throw new InvalidRefreshTokenException("Invalid refresh token");
+        }
+        Long tokenId = verified.id();
+        Long familyId = verified.familyId();
+        Long userId = verified.userId();
+        if (tokenId == null || familyId == null || userId == null || !verified.isRefreshToken()) {
+            throw new InvalidRefreshTokenException("Invalid refresh token");
+        }
+
+        if (revokedFamilies.getIfPresent(familyId) != null) {
+            throw new InvalidRefreshTokenException("Refresh token revoked");
+        }
+        if (rotatedTokens.getIfPresent(tokenId) != null) {
+            throw reused(userId, familyId);
+        }
+
+        if (repository.markRotated(tokenId, userId, familyId, LocalDateTime.now()) == 0) {
+            RefreshToken stored = repository.findById(tokenId)
+                .filter(token -> token.getUserId().equals(userId) && token.getFamilyId().equals(familyId))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token"));
+            if (stored.getStatus() == Status.ROTATED) {
+                throw reused(userId, familyId);
+            }
+            if (stored.getStatus() == Status.REVOKED) {
+                // Revocation always covers whole families
+                TransactionCallbacks.afterCommit(() -> revokedFamilies.put(familyId, Boolean.TRUE));
+                throw new InvalidRefreshTokenException("Refresh token revoked");
+            }
+            throw new InvalidRefreshTokenException("Refresh token expired");
+        }
+
+        TransactionCallbacks.afterCommit(() -> rotatedTokens.put(tokenId, Boolean.TRUE));
+        String next = issue(userId, verified.subject(), familyId);
+        return new RotatedRefreshToken(userId, verified.subject(), next);
+    }
+
+    // Logout: ends the session the refresh token belongs to, if it is the user's
+    @Transactional
+    public int revoke(String refreshToken, Long userId) {
+        VerifiedToken verified;
+        try {
+            verified = jwtService.verify(refreshToken);
+        } catch (Exception e) {
+            throw new InvalidRefreshTokenException("Invalid refresh token");
+        }
+        Long familyId = verified.familyId();
+        if (familyId == null || !verified.isRefreshToken() || !userId.equals(verified.userId())) {
+            throw new InvalidRefreshTokenException("Invalid refresh token");
+        }
+        int revoked = repository.revokeFamily(userId, familyId);
+        TransactionCallbacks.afterCommit(() -> revokedFamilies.put(familyId, Boolean.TRUE));
+        return revoked;
+    }
+
+    // Ends every session of the user; their access tokens are revoked separately by TokenRevocationList
+    @Transactional
+    public int revokeAll(Long userId) {
+        List<Long> families = repository.findActiveFamilyIds(userId);
+        int revoked = repository.revokeAllByUserId(userId);
+        TransactionCallbacks.afterCommit(() -> families.forEach(familyId -> revokedFamilies.put(familyId, Boolean.TRUE)));
+        return revoked;
+    }
+
+    // Expired rows can no longer be presented (the JWT exp has passed too), so they are dropped
+    @Scheduled(fixedDelayString = "${auth.refresh-tokens.purge-interval:1h}",
+               initialDelayString = "${auth.refresh-tokens.purge-interval:1h}")
+    public void purgeExpired() {
+        int purged = repository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired refresh tokens", purged);
+        }
+    }
+
+    private String issue(Long userId, String username, Long familyId) {
+        Instant expiresAt = Instant.now().plus(lifetime);
+        RefreshToken token = new RefreshToken();
+        token.setUserId(userId);
+        token.setExpiresAt(LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()));
+        token.setStatus(Status.ACTIVE);
+        token.setFamilyId(familyId != null ? familyId : newFamilyId());
+        repository.save(token);
+        return jwtService.generateRefreshToken(username, userId, token.getId(), token.getFamilyId(), expiresAt);
+    }
+
+    private InvalidRefreshTokenException reused(Long userId, Long familyId) {
+        int revoked = repository.revokeFamily(userId, familyId);
+        TransactionCallbacks.afterCommit(() -> revokedFamilies.put(familyId, Boolean.TRUE));
+        log.warn("Refresh token reuse for user {}: revoked family {} ({} active tokens)", userId, familyId, revoked);
+        return new InvalidRefreshTokenException("Refresh token already used; the session has been revoked");
+    }
+
+    private static long newFamilyId() {
+        return ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    }
+
+    public record RotatedRefreshToken(Long userId, String username, String refreshToken) {
+    }
+}
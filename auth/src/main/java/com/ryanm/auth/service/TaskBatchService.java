@@ -0,0 +1,306 @@
+package com.ryanm.auth.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ryanm.auth.audit.AuditAction;
+import com.ryanm.auth.audit.AuditLog;
+import com.ryanm.auth.dto.tasks.TaskBatchItemResult;
+import com.ryanm.auth.dto.tasks.TaskBatchItemResult.Status;
+import com.ryanm.auth.dto.tasks.TaskBatchResponse;
+import com.ryanm.auth.dto.tasks.TaskBatchUpdateRequest;
+import com.ryanm.auth.dto.tasks.TaskRequest;
+import com.ryanm.auth.model.Task;
+import com.ryanm.auth.model.Task.Priority;
+import com.ryanm.auth.model.UserModel;
+import com.ryanm.auth.repository.TaskRepository;
+import com.ryanm.auth.repository.TaskShareRepository;
+
+/**
+ * Bulk create/update/toggle/delete for the current user's tasks. Each call is
+ * one transaction: the items' tasks are resolved with one IN query, changes are
+ * flushed as JDBC batches, and every item gets its own result instead of one
+ * bad item failing the whole request.
+ */
+@Service
+public class TaskBatchService {
+
+    private static final String NOT_FOUND = "Task not found or access denied";
+
+    private final TaskRepository taskRepository;
+    private final TaskShareRepository taskShareRepository;
+    private final CurrentUserContext currentUser;
+    private final TaskSearchIndex searchIndex;
+    private final TaskPermissionIndex permissionIndex;
+    private final TaskChangeVersions changeVersions;
+    private final AuditLog auditLog;
+    private final int maxItems;
+
+    public TaskBatchService(
+            TaskRepository taskRepository,
+            TaskShareRepository taskShareRepository,
+            CurrentUserContext currentUser,
+            TaskSearchIndex searchIndex,
+            TaskPermissionIndex permissionIndex,
+            TaskChangeVersions changeVersions,
+            AuditLog auditLog,
+            @Value("${auth.tasks.batch.max-items:500}") int maxItems) {
+        this.taskRepository = taskRepository;
+        this.taskShareRepository = taskShareRepository;
+        this.currentUser = currentUser;
+        this.searchIndex = searchIndex;
+        this.permissionIndex = permissionIndex;
+        this.changeVersions = changeVersions;
+        this.auditLog = auditLog;
+        this.maxItems = maxItems;
+    }
+
+    @Transactional
+    public TaskBatchResponse createTasks(List<TaskRequest> requests) {
+        checkSize(requests);
+        UserModel user = currentUser.getUserReference();
+        TaskBatchItemResult[] results = new TaskBatchItemResult[requests.size()];
+        Task[] created = new Task[requests.size()];
+
+        for (int i = 0; i < requests.size(); i++) {
+            TaskRequest request = requests.get(i);
+            if (request == null || isBlank(request.getTitle())) {
+                results[i] = invalid(i, null, "Title is required");
+                continue;
+            }
+            LocalDateTime dueDate;
+            try {
+                dueDate = parseDueDate(request.getDueDate());
+            } catch (RuntimeException e) {
+                results[i] = invalid(i, null, e.getMessage());
+                continue;
+            }
+            Task task = new Task();
+            task.setTitle(request.getTitle());
+            task.setDescription(request.getDescription());
+            task.setPriority(request.getPriority() != null ? request.getPriority() : Priority.MEDIUM);
+            task.setCompleted(false);
+            task.setDueDate(dueDate);
+            task.setUser(user);
+            created[i] = task;
+        }
+
+        List<Task> toSave = Arrays.stream(created).filter(Objects::nonNull).toList();
+        taskRepository.saveAll(toSave);
+        // Ids come from the pooled sequence, so the INSERTs wait for this flush and go out batched
+        taskRepository.flush();
+
+        for (int i = 0; i < created.length; i++) {
+            if (created[i] != null) {
+                results[i] = new TaskBatchItemResult(i, created[i].getId(), Status.CREATED, null,
+                    TaskService.convertToResponse(created[i]));
+            }
+        }
+        // A batch that changed nothing keeps every listing ETag valid
+        if (!toSave.isEmpty()) {
+            TransactionCallbacks.afterCommit(() -> {
+                toSave.forEach(searchIndex::index);
+                changeVersions.bump(user.getId());
+                toSave.forEach(task -> auditLog.record(AuditAction.CREATE, user.getId(), task.getId()));
+            });
+        }
+        return response(results);
+    }
+
+    @Transactional
+    public TaskBatchResponse updateTasks(List<TaskBatchUpdateRequest> requests) {
+        checkSize(requests);
+        Map<Long, Task> tasks = ownedTasks(requests.stream()
+            .filter(Objects::nonNull)
+            .map(TaskBatchUpdateRequest::getId)
+            .toList());
+        TaskBatchItemResult[] results = new TaskBatchItemResult[requests.size()];
+        Task[] updated = new Task[requests.size()];
+
+        for (int i = 0; i < requests.size(); i++) {
+            TaskBatchUpdateRequest request = requests.get(i);
+            if (request == null || request.getId() == null) {
+                results[i] = invalid(i, null, "Task id is required");
+                continue;
+            }
+            Task task = tasks.get(request.getId());
+            if (task == null) {
+                results[i] = new TaskBatchItemResult(i, request.getId(), Status.NOT_FOUND, NOT_FOUND, null);
+                continue;
+            }
+            if (isBlank(request.getTitle())) {
+                results[i] = invalid(i, request.getId(), "Title is required");
+                continue;
+            }
+            LocalDateTime dueDate;
+            try {
+                dueDate = parseDueDate(request.getDueDate());
+            } catch (RuntimeException e) {
+                results[i] = invalid(i, request.getId(), e.getMessage());
+                continue;
+            }
+            task.setTitle(request.getTitle());
+            task.setDescription(request.getDescription());
+            task.setPriority(request.getPriority() != null ? request.getPriority() : task.getPriority());
+            if (dueDate != null) {
+                task.setDueDate(dueDate);
+            }
+            updated[i] = task;
+        }
+
+        // Dirty checking turns the changes into batched UPDATEs; @PreUpdate sets updatedAt here
+        taskRepository.flush();
+        fillUpdated(results, updated);
+        List<Task> changed = Arrays.stream(updated).filter(Objects::nonNull).distinct().toList();
+        Long userId = currentUser.getUserId();
+        if (!changed.isEmpty()) {
+            TransactionCallbacks.afterCommit(() -> {
+                changed.forEach(searchIndex::index);
+                changeVersions.bump(userId);
+                changed.forEach(task -> auditLog.record(AuditAction.UPDATE, userId, task.getId()));
+            });
+        }
+        return response(results);
+    }
+
+    @Transactional
+    public TaskBatchResponse toggleTasks(List<Long> ids) {
+        checkSize(ids);
+        Map<Long, Task> tasks = ownedTasks(ids);
+        TaskBatchItemResult[] results = new TaskBatchItemResult[ids.size()];
+        Task[] toggled = new Task[ids.size()];
+
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            Task task = id == null ? null : tasks.get(id);
+            if (task == null) {
+                results[i] = id == null
+                    ? invalid(i, null, "Task id is required")
+                    : new TaskBatchItemResult(i, id, Status.NOT_FOUND, NOT_FOUND, null);
+                continue;
+            }
+            task.setCompleted(!task.getCompleted());
+            toggled[i] = task;
+        }
+
+        taskRepository.flush();
+        fillUpdated(results, toggled);
+        Long userId = currentUser.getUserId();
+        // One entry per toggle: a task listed twice was flipped twice
+        List<Long> flipped = Arrays.stream(toggled).filter(Objects::nonNull).map(Task::getId).toList();
+        if (!flipped.isEmpty()) {
+            TransactionCallbacks.afterCommit(() -> {
+                changeVersions.bump(userId);
+                flipped.forEach(id -> auditLog.record(AuditAction.TOGGLE, userId, id));
+            });
+        }
+        return response(results);
+    }
+
+    @Transactional
+    public TaskBatchResponse deleteTasks(List<Long> ids) {
+        checkSize(ids);
+        Long userId = currentUser.getUserId();
+        List<Long> requested = ids.stream().filter(Objects::nonNull).distinct().toList();
+        Set<Long> owned = requested.isEmpty()
+            ? Set.of()
+            : new HashSet<>(taskRepository.findOwnedIds(userId, requested));
+        TaskBatchItemResult[] results = new TaskBatchItemResult[ids.size()];
+        Set<Long> deleted = new HashSet<>();
+
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (id == null) {
+                results[i] = invalid(i, null, "Task id is required");
+            } else if (owned.contains(id) && deleted.add(id)) {
+                results[i] = new TaskBatchItemResult(i, id, Status.DELETED, null, null);
+            } else {
+                results[i] = new TaskBatchItemResult(i, id, Status.NOT_FOUND, NOT_FOUND, null);
+            }
+        }
+
+        // Two bulk statements instead of loading each task and cascading to its shares one by one
+        if (!deleted.isEmpty()) {
+            taskShareRepository.deleteAllByTaskIds(deleted);
+            taskRepository.deleteAllByIds(deleted);
+            TransactionCallbacks.afterCommit(() -> {
+                deleted.forEach(id -> {
+                    searchIndex.remove(userId, id);
+                    permissionIndex.removeTask(id);
+                    auditLog.record(AuditAction.DELETE, userId, id);
+                });
+                changeVersions.bump(userId);
+            });
+        }
+        return response(results);
+    }
+
+    private Map<Long, Task> ownedTasks(List<Long> ids) {
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinct.isEmpty()) {
+            return Map.of();
+        }
+        return taskRepository.findOwnedByIds(currentUser.getUserId(), distinct).stream()
+            .collect(Collectors.toMap(Task::getId, Function.identity()));
+    }
+
+    private void checkSize(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one item");
+        }
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("Batch exceeds the limit of " + maxItems + " items");
+        }
+    }
+
+    // Responses are built after the flush so they carry the new updatedAt
+    private static void fillUpdated(TaskBatchItemResult[] results, Task[] tasks) {
+        for (int i = 0; i < tasks.length; i++) {
+            if (tasks[i] != null) {
+                results[i] = new TaskBatchItemResult(i, tasks[i].getId(), Status.UPDATED, null,
+                    TaskService.convertToResponse(tasks[i]));
+            }
+        }
+    }
+
+    private static TaskBatchResponse response(TaskBatchItemResult[] results) {
+        List<TaskBatchItemResult> list = new ArrayList<>(Arrays.asList(results));
+        int failed = (int) list.stream().filter(TaskBatchService::isFailure).count();
+        return new TaskBatchResponse(list, list.size() - failed, failed);
+    }
+
+    private static boolean isFailure(TaskBatchItemResult result) {
+        return result.getStatus() == Status.NOT_FOUND || result.getStatus() == Status.INVALID;
+    }
+
+    private static TaskBatchItemResult invalid(int index, Long id, String error) {
+        return new TaskBatchItemResult(index, id, Status.INVALID, error, null);
+    }
+
+    private static LocalDateTime parseDueDate(String dueDate) {
+        if (dueDate == null || dueDate.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(dueDate);
+        } catch (Exception e) {
+            throw new RuntimeException("Invalid due date format. Please use ISO-8601 format (e.g., 2023-10-01T10:15:30)");
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,66 @@
+package com.ryanm.auth.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-user version of the user's task data, bumped after every committed change
+ * to one of their tasks. Listing ETags are built from it, so a conditional GET
+ * of an unchanged listing is answered without touching the database.
+ *
+ * Versions live in memory and restart at zero; the boot epoch in every listing
+ * tag keeps a tag issued before a restart from matching one issued after it.
+ */
+@Component
+public class TaskChangeVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    // Call once the change is committed: a tag read earlier must not be paired with data read later
+    public void bump(Long userId) {
+        versions.merge(userId, 1L, Long::sum);
+    }
+
+    // Tag for one of the user's listings; the variant (query parameters) keeps each listing's tag distinct
+    public String listingETag(Long userId, Object... variant) {
+        return epoch
+            + "-" + Long.toString(userId, 36)
+            + "-" + Long.toString(versions.getOrDefault(userId, 0L), 36)
+            + "-" + digest(variant);
+    }
+
+    // 128 bits of SHA-256 over the length-prefixed parts, so no two distinct variants realistically share a tag
+    static String digest(Object... parts) {
+        StringBuilder canonical = new StringBuilder();
+        for (Object part : parts) {
+            if (part == null) {
+                canonical.append("-1:");
+            } else {
+                String value = part.toString();
+                canonical.append(value.length()).append(':').append(value);
+            }
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Tag for a single task: changes with its updatedAt, so it stays valid across restarts
+    public static String taskETag(Long taskId, LocalDateTime updatedAt) {
+        long micros = updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + updatedAt.getNano() / 1_000;
+        return Long.toString(taskId, 36) + "-" + Long.toString(micros, 36);
+    }
+}
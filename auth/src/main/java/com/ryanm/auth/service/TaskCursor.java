@@ -0,0 +1,60 @@
+package com.ryanm.auth.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Set;
+
+import org.springframework.data.domain.Sort;
+
+import com.ryanm.auth.dto.tasks.TaskResponse;
+
+/**
+ * Opaque keyset position: the sort key, direction and the (value, id) of the
+ * last row served, encoded as base64url so clients treat it as a token.
+ */
+record TaskCursor(String sortBy, Sort.Direction direction, Long id, Comparable<?> value) {
+
+    // Non-null columns only; a nullable key (dueDate) would need NULLS handling in the seek predicate
+    static final Set<String> SORT_KEYS = Set.of("createdAt", "updatedAt", "title", "id");
+
+    static TaskCursor after(TaskResponse task, String sortBy, Sort.Direction direction) {
+        return new TaskCursor(sortBy, direction, task.getId(), valueOf(task, sortBy));
+    }
+
+    String encode() {
+        String raw = sortBy + "|" + direction.name() + "|" + id + "|" + (value == null ? "" : value.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static TaskCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            String sortBy = parts[0];
+            if (parts.length != 4 || !SORT_KEYS.contains(sortBy)) {
+                throw new IllegalArgumentException();
+            }
+            return new TaskCursor(sortBy, Sort.Direction.valueOf(parts[1]), Long.valueOf(parts[2]), parseValue(sortBy, parts[3]));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    private static Comparable<?> valueOf(TaskResponse task, String sortBy) {
+        return switch (sortBy) {
+            case "createdAt" -> task.getCreatedAt();
+            case "updatedAt" -> task.getUpdatedAt();
+            case "title" -> task.getTitle();
+            default -> task.getId();
+        };
+    }
+
+    private static Comparable<?> parseValue(String sortBy, String value) {
+        return switch (sortBy) {
+            case "createdAt", "updatedAt" -> LocalDateTime.parse(value);
+            case "title" -> value;
+            default -> Long.valueOf(value);
+        };
+    }
+}
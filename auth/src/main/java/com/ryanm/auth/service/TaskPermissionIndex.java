@@ -0,0 +1,290 @@
+package com.ryanm.auth.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.ryanm.auth.model.TaskShare.SharePermission;
+import com.ryanm.auth.repository.TaskShareRepository;
+import com.ryanm.auth.repository.TaskShareRow;
+
+/**
+ * (taskId, userId) -> SharePermission for every task share, so an access check
+ * is one hash probe instead of loading Task.shares and comparing UserModel
+ * entities. Owners are not stored: ownership is the task's user_id.
+ *
+ * The map is keyed by primitive task ids (open addressing, no boxing) and split
+ * into stripes guarded by a StampedLock; reads are optimistic and only take the
+ * read lock when a write raced them. Each task's shares are a small immutable
+ * long[] of (userId << 2 | permission), replaced on every change.
+ *
+ * Kept current by TaskService/TaskBatchService writes and rebuilt from the
+ * database once the application is ready; until then lookups go to the database.
+ */
+@Component
+public class TaskPermissionIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskPermissionIndex.class);
+
+    static final int STRIPE_BITS = 6;
+    private static final SharePermission[] PERMISSIONS = SharePermission.values();
+
+    private final TaskShareRepository taskShareRepository;
+    private final Stripe[] stripes = new Stripe[1 << STRIPE_BITS];
+
+    // Changes made while the startup rebuild runs; the rebuild must not overwrite them with its older snapshot
+    private final Set<Map.Entry<Long, Long>> touchedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private final Set<Long> removedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+
+    public TaskPermissionIndex(TaskShareRepository taskShareRepository) {
+        this.taskShareRepository = taskShareRepository;
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        List<TaskShareRow> rows = taskShareRepository.findAllShareRows();
+        for (TaskShareRow row : rows) {
+            if (!removedDuringRebuild.contains(row.taskId())
+                    && !touchedDuringRebuild.contains(Map.entry(row.taskId(), row.userId()))) {
+                stripe(row.taskId()).put(row.taskId(), row.userId(), row.permission());
+            }
+        }
+        ready = true;
+        touchedDuringRebuild.clear();
+        removedDuringRebuild.clear();
+        log.info("Task permission index built: {} shares in {} ms",
+            rows.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // The user's permission on a task shared with them, or null when it is not
+    public SharePermission permission(long taskId, long userId) {
+        if (!ready) {
+            List<SharePermission> permissions = taskShareRepository.findPermissions(taskId, userId);
+            return permissions.isEmpty() ? null : permissions.get(0);
+        }
+        return stripe(taskId).get(taskId, userId);
+    }
+
+    public void put(long taskId, long userId, SharePermission permission) {
+        if (!ready) {
+            touchedDuringRebuild.add(Map.entry(taskId, userId));
+        }
+        stripe(taskId).put(taskId, userId, permission);
+    }
+
+    public void remove(long taskId, long userId) {
+        if (!ready) {
+            touchedDuringRebuild.add(Map.entry(taskId, userId));
+        }
+        stripe(taskId).remove(taskId, userId);
+    }
+
+    // All shares of a deleted task
+    public void removeTask(long taskId) {
+        if (!ready) {
+            removedDuringRebuild.add(taskId);
+        }
+        stripe(taskId).removeTask(taskId);
+    }
+
+    private Stripe stripe(long taskId) {
+        return stripes[(int) (hash(taskId) >>> (64 - STRIPE_BITS))];
+    }
+
+    // Fibonacci hashing: the top bits pick the stripe, the low bits the slot
+    static long hash(long taskId) {
+        return taskId * 0x9E3779B97F4A7C15L;
+    }
+
+    private static final class Stripe {
+
+        // Task ids come from a sequence starting at 1, so 0 marks a free slot
+        private static final long FREE = 0L;
+
+        private final StampedLock lock = new StampedLock();
+        private Table table = new Table(16);
+        private int size;
+
+        SharePermission get(long taskId, long userId) {
+            long stamp = lock.tryOptimisticRead();
+            int ordinal = table.find(taskId, userId);
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    ordinal = table.find(taskId, userId);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return ordinal < 0 ? null : PERMISSIONS[ordinal];
+        }
+
+        void put(long taskId, long userId, SharePermission permission) {
+            long grant = userId << 2 | permission.ordinal();
+            long stamp = lock.writeLock();
+            try {
+                int slot = table.slot(taskId);
+                long[] grants = table.grants[slot];
+                if (grants == null) {
+                    table.grants[slot] = new long[] {grant};
+                    table.taskIds[slot] = taskId;
+                    if (++size * 2 > table.taskIds.length) {
+                        table = table.resized();
+                    }
+                    return;
+                }
+                table.grants[slot] = with(grants, userId, grant);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void remove(long taskId, long userId) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = table.slot(taskId);
+                long[] grants = table.grants[slot];
+                if (grants == null) {
+                    return;
+                }
+                long[] remaining = without(grants, userId);
+                if (remaining.length == 0) {
+                    table.delete(slot);
+                    size--;
+                } else {
+                    table.grants[slot] = remaining;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void removeTask(long taskId) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = table.slot(taskId);
+                if (table.grants[slot] != null) {
+                    table.delete(slot);
+                    size--;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        // Copy of grants with the user's entry replaced or appended
+        private static long[] with(long[] grants, long userId, long grant) {
+            for (int i = 0; i < grants.length; i++) {
+                if (grants[i] >>> 2 == userId) {
+                    long[] copy = grants.clone();
+                    copy[i] = grant;
+                    return copy;
+                }
+            }
+            long[] copy = Arrays.copyOf(grants, grants.length + 1);
+            copy[grants.length] = grant;
+            return copy;
+        }
+
+        private static long[] without(long[] grants, long userId) {
+            for (int i = 0; i < grants.length; i++) {
+                if (grants[i] >>> 2 == userId) {
+                    long[] copy = new long[grants.length - 1];
+                    System.arraycopy(grants, 0, copy, 0, i);
+                    System.arraycopy(grants, i + 1, copy, i, copy.length - i);
+                    return copy;
+                }
+            }
+            return grants;
+        }
+
+        // Linear-probing table; both arrays are swapped together on resize so an optimistic reader never mixes them
+        private static final class Table {
+
+            final long[] taskIds;
+            final long[][] grants;
+
+            Table(int capacity) {
+                taskIds = new long[capacity];
+                grants = new long[capacity][];
+            }
+
+            // Permission ordinal, or -1. Runs under an optimistic read, so a torn view must not throw or loop
+            int find(long taskId, long userId) {
+                int mask = taskIds.length - 1;
+                int i = (int) hash(taskId) & mask;
+                for (int probes = 0; probes <= mask; probes++, i = (i + 1) & mask) {
+                    long key = taskIds[i];
+                    if (key == FREE) {
+                        return -1;
+                    }
+                    if (key == taskId) {
+                        long[] entries = grants[i];
+                        if (entries != null) {
+                            for (long grant : entries) {
+                                if (grant >>> 2 == userId) {
+                                    return (int) (grant & 3);
+                                }
+                            }
+                        }
+                        return -1;
+                    }
+                }
+                return -1;
+            }
+
+            // The task's slot, or the free slot where it would go
+            int slot(long taskId) {
+                int mask = taskIds.length - 1;
+                int i = (int) hash(taskId) & mask;
+                while (taskIds[i] != FREE && taskIds[i] != taskId) {
+                    i = (i + 1) & mask;
+                }
+                return i;
+            }
+
+            // Backward-shift deletion: keeps probe chains intact without tombstones
+            void delete(int slot) {
+                int mask = taskIds.length - 1;
+                int hole = slot;
+                for (int i = (hole + 1) & mask; taskIds[i] != FREE; i = (i + 1) & mask) {
+                    int home = (int) hash(taskIds[i]) & mask;
+                    boolean stays = hole <= i ? hole < home && home <= i : hole < home || home <= i;
+                    if (!stays) {
+                        grants[hole] = grants[i];
+                        taskIds[hole] = taskIds[i];
+                        hole = i;
+                    }
+                }
+                taskIds[hole] = FREE;
+                grants[hole] = null;
+            }
+
+            Table resized() {
+                Table bigger = new Table(taskIds.length * 2);
+                for (int i = 0; i < taskIds.length; i++) {
+                    if (taskIds[i] != FREE) {
+                        int slot = bigger.slot(taskIds[i]);
+                        bigger.taskIds[slot] = taskIds[i];
+                        bigger.grants[slot] = grants[i];
+                    }
+                }
+                return bigger;
+            }
+        }
+    }
+}
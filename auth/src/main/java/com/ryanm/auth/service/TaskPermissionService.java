@@ -2,7 +2,6 @@ package com.ryanm.auth.service;
 
 import com.ryanm.auth.model.Task;
 import com.ryanm.auth.model.TaskShare.SharePermission;
-import com.ryanm.auth.model.UserModel;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -10,40 +9,51 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class TaskPermissionService {
 
-    public boolean canView(Task task, UserModel user) {
-        return task.hasAccess(user);
+    private final TaskPermissionIndex permissionIndex;
+
+    // Owner has MANAGE; anyone else has what the task was shared with them with, or null
+    public SharePermission getPermission(Task task, Long userId) {
+        // Reading the owner's id does not initialize the user proxy
+        if (task.getUser().getId().equals(userId)) {
+            return SharePermission.MANAGE;
+        }
+        return permissionIndex.permission(task.getId(), userId);
+    }
+
+    public boolean canView(Task task, Long userId) {
+        return getPermission(task, userId) != null;
     }
 
-    public boolean canEdit(Task task, UserModel user) {
-        SharePermission permission = task.getPermissionForUser(user);
+    public boolean canEdit(Task task, Long userId) {
+        SharePermission permission = getPermission(task, userId);
         return permission == SharePermission.EDIT || permission == SharePermission.MANAGE;
     }
 
-    public boolean canShare(Task task, UserModel user) {
-        SharePermission permission = task.getPermissionForUser(user);
+    public boolean canShare(Task task, Long userId) {
+        SharePermission permission = getPermission(task, userId);
         return permission == SharePermission.MANAGE;
     }
 
-    public boolean canShareTask(Task task, UserModel user) {
+    public boolean canShareTask(Task task, Long userId) {
         // Check if user can share AND task is shareable
-        return task.getIsShareable() && canShare(task, user);
+        return task.getIsShareable() && canShare(task, userId);
     }
 
-    public void validateViewAccess(Task task, UserModel user) {
-        if (!canView(task, user)) {
+    public void validateViewAccess(Task task, Long userId) {
+        if (!canView(task, userId)) {
             throw new RuntimeException("Access denied: You don't have permission to view this task");
         }
     }
 
-    public void validateEditAccess(Task task, UserModel user) {
-        if (!canEdit(task, user)) {
+    public void validateEditAccess(Task task, Long userId) {
+        if (!canEdit(task, userId)) {
             throw new RuntimeException("Access denied: You don't have permission to edit this task");
         }
     }
 
-    public void validateShareAccess(Task task, UserModel user) {
-        if (!canShareTask(task, user)) {
+    public void validateShareAccess(Task task, Long userId) {
+        if (!canShareTask(task, userId)) {
             throw new RuntimeException("Access denied: You don't have permission to share this task or task is not shareable");
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,381 @@
+package com.ryanm.auth.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.ryanm.auth.model.Task;
+import com.ryanm.auth.repository.TaskRepository;
+import com.ryanm.auth.repository.TaskSearchRow;
+
+/**
+ * Per-user trigram inverted index over task title and description. Each
+ * trigram maps to a sorted array of task ids; a query's arrays are intersected
+ * by merging, giving the tasks that contain every trigram of the query. That
+ * is a superset of the LIKE '%q%' matches (trigrams need not be adjacent), so
+ * callers pass the candidates to SQL together with the LIKE, which re-checks
+ * them against the row without scanning the user's other tasks.
+ *
+ * No text is kept, only ids, so updates and deletes cannot unpost the old
+ * trigrams: those entries go stale and are dropped by the re-check. Once a
+ * user's index has taken as many such writes as it holds tasks, the next
+ * search rebuilds it from that user's rows.
+ *
+ * Kept current by TaskService writes (after they commit) and rebuilt from the
+ * database once the application is ready. {@link #search} returns null, and
+ * callers fall back to SQL alone, until then, for queries shorter than a
+ * trigram and for broad terms whose candidates are too many to pass on as an
+ * id list (the IN list would cost more than the LIKE scan it replaces).
+ */
+@Component
+public class TaskSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskSearchIndex.class);
+
+    // Stale writes a user's index absorbs before a search compacts it, however few tasks it holds
+    private static final int MIN_STALE_WRITES = 64;
+
+    private final TaskRepository taskRepository;
+    private final int maxMatches;
+    private final Map<Long, UserIndex> users = new ConcurrentHashMap<>();
+
+    // Task ids written while the startup rebuild runs; the rebuild must not overwrite them with its older snapshot
+    private final Set<Long> touchedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+
+    public TaskSearchIndex(
+            TaskRepository taskRepository,
+            @Value("${auth.search.max-index-matches:1000}") int maxMatches) {
+        this.taskRepository = taskRepository;
+        this.maxMatches = maxMatches;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        List<TaskSearchRow> rows = taskRepository.findAllSearchRows();
+        for (TaskSearchRow row : rows) {
+            if (!touchedDuringRebuild.contains(row.id())) {
+                userIndex(row.userId()).put(row.id(), text(row.title(), row.description()));
+            }
+        }
+        ready = true;
+        touchedDuringRebuild.clear();
+        log.info("Task search index built: {} tasks, {} users in {} ms",
+            rows.size(), users.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void index(Task task) {
+        Long userId = task.getUser().getId();
+        if (!ready) {
+            touchedDuringRebuild.add(task.getId());
+        }
+        userIndex(userId).put(task.getId(), text(task.getTitle(), task.getDescription()));
+    }
+
+    public void remove(Long userId, Long taskId) {
+        if (!ready) {
+            touchedDuringRebuild.add(taskId);
+        }
+        UserIndex index = users.get(userId);
+        if (index != null) {
+            index.remove(taskId);
+        }
+    }
+
+    // Ids of the user's tasks that may contain the query, to be re-checked by SQL; null when SQL should answer alone
+    public Set<Long> search(Long userId, String query) {
+        if (!ready || query.length() < 3) {
+            return null;
+        }
+        UserIndex index = users.get(userId);
+        if (index == null) {
+            return Set.of();
+        }
+        if (index.needsCompaction()) {
+            compact(userId, index);
+        }
+        long[] candidates = index.candidates(query.toLowerCase(Locale.ROOT), maxMatches);
+        if (candidates == null) {
+            return null;
+        }
+        Set<Long> ids = new HashSet<>(candidates.length * 2);
+        for (long id : candidates) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    // Reloads one user's postings from their rows; writes made meanwhile are replayed on top
+    private void compact(Long userId, UserIndex index) {
+        if (!index.beginCompaction()) {
+            return;
+        }
+        List<TaskSearchRow> rows;
+        try {
+            rows = taskRepository.findSearchRowsByUserId(userId);
+        } catch (RuntimeException e) {
+            index.abortCompaction();
+            throw e;
+        }
+        Map<Long, String> texts = new HashMap<>(rows.size() * 2);
+        for (TaskSearchRow row : rows) {
+            texts.put(row.id(), text(row.title(), row.description()));
+        }
+        index.finishCompaction(texts);
+    }
+
+    private UserIndex userIndex(Long userId) {
+        return users.computeIfAbsent(userId, id -> new UserIndex());
+    }
+
+    // Title and description are indexed as one document; the separator keeps a match from spanning both
+    private static String text(String title, String description) {
+        String text = description == null ? title : title + "\n" + description;
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    // Three UTF-16 chars packed into one long key
+    private static long trigram(String text, int at) {
+        return ((long) text.charAt(at) << 32) | ((long) text.charAt(at + 1) << 16) | text.charAt(at + 2);
+    }
+
+    // Sorted ids in [a, b) of both arrays, by merging, or by binary search when one side is far smaller
+    static long[] intersect(long[] a, int aSize, long[] b, int bSize) {
+        if (aSize > bSize) {
+            return intersect(b, bSize, a, aSize);
+        }
+        long[] out = new long[aSize];
+        int n = 0;
+        if ((long) aSize * 16 < bSize) {
+            int from = 0;
+            for (int i = 0; i < aSize && from < bSize; i++) {
+                int at = Arrays.binarySearch(b, from, bSize, a[i]);
+                if (at >= 0) {
+                    out[n++] = a[i];
+                    from = at + 1;
+                } else {
+                    from = -at - 1;
+                }
+            }
+        } else {
+            int i = 0;
+            int j = 0;
+            while (i < aSize && j < bSize) {
+                if (a[i] < b[j]) {
+                    i++;
+                } else if (a[i] > b[j]) {
+                    j++;
+                } else {
+                    out[n++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    // Growable sorted set of ids; ids mostly arrive in increasing order, so adds are usually appends
+    static final class Posting {
+
+        long[] ids = new long[4];
+        int size;
+
+        boolean add(long id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int at = Arrays.binarySearch(ids, 0, size, id);
+                if (at >= 0) {
+                    return false;
+                }
+                insertAt(-at - 1, id);
+                return true;
+            }
+            insertAt(size, id);
+            return true;
+        }
+
+        boolean remove(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        private void insertAt(int at, long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+    }
+
+    private static final class UserIndex {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private Map<Long, Posting> postings = new HashMap<>();
+        private Posting tasks = new Posting();
+
+        // Updates and deletes since the last build: each may have left stale postings behind
+        private int staleWrites;
+
+        // Non-null while a compaction loads rows: writes to replay on the rebuilt postings
+        private Map<Long, String> pendingPuts;
+        private Set<Long> pendingRemoves;
+
+        void put(long taskId, String text) {
+            lock.writeLock().lock();
+            try {
+                if (!tasks.add(taskId)) {
+                    staleWrites++;
+                }
+                post(postings, taskId, text);
+                if (pendingPuts != null) {
+                    pendingRemoves.remove(taskId);
+                    pendingPuts.put(taskId, text);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(long taskId) {
+            lock.writeLock().lock();
+            try {
+                if (tasks.remove(taskId)) {
+                    staleWrites++;
+                }
+                if (pendingPuts != null) {
+                    pendingPuts.remove(taskId);
+                    pendingRemoves.add(taskId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        boolean needsCompaction() {
+            lock.readLock().lock();
+            try {
+                return pendingPuts == null && staleWrites >= Math.max(MIN_STALE_WRITES, tasks.size);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // Only one search compacts; the others keep using the current postings meanwhile
+        boolean beginCompaction() {
+            lock.writeLock().lock();
+            try {
+                if (pendingPuts != null) {
+                    return false;
+                }
+                pendingPuts = new HashMap<>();
+                pendingRemoves = new HashSet<>();
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void abortCompaction() {
+            lock.writeLock().lock();
+            try {
+                pendingPuts = null;
+                pendingRemoves = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void finishCompaction(Map<Long, String> texts) {
+            lock.writeLock().lock();
+            try {
+                texts.keySet().removeAll(pendingRemoves);
+                texts.putAll(pendingPuts);
+                Map<Long, Posting> rebuilt = new HashMap<>();
+                Posting rebuiltTasks = new Posting();
+                // Ascending ids keep every posting add an append
+                texts.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(entry -> {
+                        rebuiltTasks.add(entry.getKey());
+                        post(rebuilt, entry.getKey(), entry.getValue());
+                    });
+                postings = rebuilt;
+                tasks = rebuiltTasks;
+                staleWrites = 0;
+                pendingPuts = null;
+                pendingRemoves = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // Candidate ids in ascending order, or null when there are more than limit
+        long[] candidates(String query, int limit) {
+            lock.readLock().lock();
+            try {
+                List<Posting> lists = new ArrayList<>();
+                for (int i = 0; i + 3 <= query.length(); i++) {
+                    Posting posting = postings.get(trigram(query, i));
+                    if (posting == null) {
+                        return new long[0];
+                    }
+                    lists.add(posting);
+                }
+                // Rarest trigram first, so every merge works on the smallest running result
+                lists.sort((a, b) -> Integer.compare(a.size, b.size));
+                Posting rarest = lists.get(0);
+                long[] result = Arrays.copyOf(rarest.ids, rarest.size);
+                for (int i = 1; i < lists.size() && result.length > 0; i++) {
+                    Posting next = lists.get(i);
+                    result = intersect(result, result.length, next.ids, next.size);
+                }
+                return result.length > limit ? null : dropRemoved(result);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // Deleted tasks would be filtered by SQL too, but dropping them here keeps the IN list short
+        private long[] dropRemoved(long[] ids) {
+            int n = 0;
+            for (long id : ids) {
+                if (tasks.contains(id)) {
+                    ids[n++] = id;
+                }
+            }
+            return n == ids.length ? ids : Arrays.copyOf(ids, n);
+        }
+
+        private static void post(Map<Long, Posting> postings, long taskId, String text) {
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                postings.computeIfAbsent(trigram(text, i), k -> new Posting()).add(taskId);
+            }
+        }
+    }
+}
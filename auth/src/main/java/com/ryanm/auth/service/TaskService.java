@@ -1,27 +1,43 @@
 package com.ryanm.auth.service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.ryanm.auth.audit.AuditAction;
+import com.ryanm.auth.audit.AuditLog;
+import com.ryanm.auth.dto.tasks.SharedTaskPageResponse;
+import com.ryanm.auth.dto.tasks.SharedTaskResponse;
+import com.ryanm.auth.dto.tasks.TaskCursorPageResponse;
 import com.ryanm.auth.dto.tasks.TaskFilterRequest;
 import com.ryanm.auth.dto.tasks.TaskPageResponse;
 import com.ryanm.auth.dto.tasks.TaskRequest;
 import com.ryanm.auth.dto.tasks.TaskResponse;
 import com.ryanm.auth.dto.tasks.TaskShareRequest;
+import com.ryanm.auth.dto.tasks.TaskShareResponse;
+import com.ryanm.auth.dto.tasks.TaskShareResult;
+import com.ryanm.auth.dto.tasks.TaskShareResult.Status;
 import com.ryanm.auth.model.Task;
 import com.ryanm.auth.model.TaskShare;
 import com.ryanm.auth.model.UserModel;
 import com.ryanm.auth.model.Task.Priority;
 import com.ryanm.auth.model.TaskShare.SharePermission;
+import com.ryanm.auth.repository.TaskFilter;
 import com.ryanm.auth.repository.TaskRepository;
 import com.ryanm.auth.repository.TaskShareRepository;
 import com.ryanm.auth.repository.UserRepository;
@@ -34,17 +50,16 @@ public class TaskService {
     private final TaskRepository taskRepository;
     private final UserRepository userRepository;
     private final TaskShareRepository taskShareRepository;
-
-    private UserModel getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        return userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-    }
+    private final CurrentUserContext currentUser;
+    private final TaskSearchIndex searchIndex;
+    private final TaskPermissionIndex permissionIndex;
+    private final TaskPermissionService permissionService;
+    private final TaskChangeVersions changeVersions;
+    private final AuditLog auditLog;
 
 
     public TaskResponse createTask(TaskRequest request) {
-        UserModel user = getCurrentUser();
+        UserModel user = currentUser.getUserReference();
 
         Task task = new Task();
         task.setTitle(request.getTitle());
@@ -63,12 +78,13 @@ public class TaskService {
         }
 
         Task savedTask = taskRepository.save(task);
-        
-        return convertToResponse(savedTask);
+        searchIndex.index(savedTask);
+        changeVersions.bump(savedTask.getUser().getId());
+        auditLog.record(AuditAction.CREATE, savedTask.getUser().getId(), savedTask.getId());
 
-    
+        return convertToResponse(savedTask);
     }
-    private TaskResponse convertToResponse(Task task) {
+    static TaskResponse convertToResponse(Task task) {
         return new TaskResponse(
             task.getId(),
             task.getTitle(),
@@ -81,44 +97,58 @@ public class TaskService {
         );
     }
 
+    @Transactional(readOnly = true)
     public List<TaskResponse> getAllTasks() {
-        UserModel user = getCurrentUser();
-        List<Task> tasks = taskRepository.findByUserOrderByCreatedAtDesc(user);
-        return tasks.stream()
-            .map(this::convertToResponse)
-            .toList();
+        Long userId = currentUser.getUserId();
+        return taskRepository.findResponsesByUserId(userId);
     }
 
+    @Transactional(readOnly = true)
     public TaskResponse getTaskById(Long taskId) {
-        UserModel user = getCurrentUser();
-        Task task = taskRepository.findByIdAndUser(taskId, user)
+        Long userId = currentUser.getUserId();
+        return taskRepository.findResponseByIdAndUserId(taskId, userId)
             .orElseThrow(() -> new RuntimeException("Task not found"));
-        return convertToResponse(task);
+    }
+
+    // ETag of one of the current user's listings: no query, the per-user change version decides
+    public String getTasksETag(Object... variant) {
+        return changeVersions.listingETag(currentUser.getUserId(), variant);
+    }
+
+    // ETag of a task from its updatedAt alone, or null when the user has no such task
+    @Transactional(readOnly = true)
+    public String getTaskETag(Long taskId) {
+        Long userId = currentUser.getUserId();
+        return taskRepository.findUpdatedAtByIdAndUserId(taskId, userId)
+            .map(updatedAt -> TaskChangeVersions.taskETag(taskId, updatedAt))
+            .orElse(null);
     }
 
     public TaskResponse toggleTaskCompletion(Long taskId) {
-        UserModel user = getCurrentUser();
-        
-        Task task = taskRepository.findByIdAndUser(taskId, user)
+        Long userId = currentUser.getUserId();
+    
+        Task task = taskRepository.findByIdAndUserId(taskId, userId)
             .orElseThrow(() -> new RuntimeException("Task not found or access denied"));
-        
+    
         // Business logic: toggle completion
         task.setCompleted(!task.getCompleted());
-        
+    
         Task savedTask = taskRepository.save(task);
+        changeVersions.bump(userId);
+        auditLog.record(AuditAction.TOGGLE, userId, taskId);
         return convertToResponse(savedTask);
     }
     public TaskResponse updateTask(Long taskId, TaskRequest request) {
-        UserModel user = getCurrentUser();
-        
-        Task task = taskRepository.findByIdAndUser(taskId, user)
+        Long userId = currentUser.getUserId();
+    
+        Task task = taskRepository.findByIdAndUserId(taskId, userId)
             .orElseThrow(() -> new RuntimeException("Task not found or access denied"));
-        
+    
         // Update fields
         task.setTitle(request.getTitle());
         task.setDescription(request.getDescription());
         task.setPriority(request.getPriority() != null ? request.getPriority() : task.getPriority());
-        
+    
         // Update due date if provided
         if (request.getDueDate() != null && !request.getDueDate().isEmpty()) {
             try {
@@ -128,45 +158,43 @@ public class TaskService {
                 throw new RuntimeException("Invalid due date format. Please use ISO-8601 format (e.g., 2023-10-01T10:15:30)");
             }
         }
-        
+    
         Task savedTask = taskRepository.save(task);
+        searchIndex.index(savedTask);
+        changeVersions.bump(userId);
+        auditLog.record(AuditAction.UPDATE, userId, taskId);
         return convertToResponse(savedTask);
     }
 
     // 🗑️ DELETE TASK
     public void deleteTask(Long taskId) {
-        UserModel user = getCurrentUser();
-        
-        Task task = taskRepository.findByIdAndUser(taskId, user)
+        Long userId = currentUser.getUserId();
+    
+        Task task = taskRepository.findByIdAndUserId(taskId, userId)
             .orElseThrow(() -> new RuntimeException("Task not found or access denied"));
-        
+    
         taskRepository.delete(task);
+        searchIndex.remove(userId, taskId);
+        permissionIndex.removeTask(taskId);
+        changeVersions.bump(userId);
+        auditLog.record(AuditAction.DELETE, userId, taskId);
     }
 
+    @Transactional(readOnly = true)
     public TaskPageResponse getTasksWithFilters(TaskFilterRequest req) {
-        UserModel user = getCurrentUser();
-         Pageable pageable = createPageable(req);
-        
-        LocalDateTime dueBefore = parseDateTime(req.getDueBefore());
-        LocalDateTime dueAfter = parseDateTime(req.getDueAfter());
-        
-        Page<Task> taskPage = taskRepository.findTasksWithFilters(
-            user,
-            req.getTitle(),
-            req.getDescription(),
-            req.getCompleted(),
-            req.getPriority(),
-            dueBefore,
-            dueAfter,
-            pageable
-        );
+        Long userId = currentUser.getUserId();
+        Pageable pageable = createPageable(req);
+        TaskFilter filter = createFilter(userId, req);
 
-        List<TaskResponse> taskResponses = taskPage.getContent().stream()
-            .map(this::convertToResponse)
-            .collect(Collectors.toList());
+        // Nothing in the index matches: skip the query entirely
+        if (filter.ids() != null && filter.ids().isEmpty()) {
+            return new TaskPageResponse(List.of(), pageable.getPageNumber(), pageable.getPageSize(), 0, 0);
+        }
+
+        Page<TaskResponse> taskPage = taskRepository.findTaskResponses(filter, pageable);
 
             return new TaskPageResponse(
-                taskResponses,
+                taskPage.getContent(),
             taskPage.getNumber(),           // Current page
             taskPage.getSize(),             // Page size
             taskPage.getTotalElements(),    // Total items
@@ -174,7 +202,63 @@ public class TaskService {
             );
     }
 
+    // Keyset variant of getTasksWithFilters: seeks past the cursor row, no offset scan and no count query
+    @Transactional(readOnly = true)
+    public TaskCursorPageResponse getTasksAfterCursor(TaskFilterRequest req) {
+        Long userId = currentUser.getUserId();
+        Sort.Direction direction = Sort.Direction.fromString(req.getSortDirection());
+        String sortBy = req.getSortBy();
+        if (!TaskCursor.SORT_KEYS.contains(sortBy)) {
+            throw new RuntimeException("Cursor pagination supports sortBy " + TaskCursor.SORT_KEYS);
+        }
+
+        TaskCursor cursor = req.getAfter() == null ? null : TaskCursor.decode(req.getAfter());
+        if (cursor != null && (!cursor.sortBy().equals(sortBy) || cursor.direction() != direction)) {
+            throw new RuntimeException("Cursor does not match sortBy/sortDirection");
+        }
+
+        TaskFilter filter = createFilter(userId, req);
+        int size = req.getSize();
+        if (size < 1) {
+            throw new RuntimeException("Page size must not be less than one");
+        }
+        if (filter.ids() != null && filter.ids().isEmpty()) {
+            return new TaskCursorPageResponse(List.of(), size, null);
+        }
+        // One extra row tells us whether another page exists
+        List<TaskResponse> tasks = taskRepository.findTaskResponsesAfter(
+            filter,
+            sortBy,
+            direction,
+            cursor == null ? null : cursor.value(),
+            cursor == null ? null : cursor.id(),
+            size + 1
+        );
 
+        String nextCursor = null;
+        if (tasks.size() > size) {
+            tasks = tasks.subList(0, size);
+            nextCursor = TaskCursor.after(tasks.get(size - 1), sortBy, direction).encode();
+        }
+        return new TaskCursorPageResponse(tasks, size, nextCursor);
+    }
+
+    // "search" (title or description contains) is narrowed to the in-memory index's candidates when it is built
+    private TaskFilter createFilter(Long userId, TaskFilterRequest req) {
+        String search = req.getSearch() == null || req.getSearch().isBlank() ? null : req.getSearch();
+        Set<Long> ids = search == null ? null : searchIndex.search(userId, search);
+        return new TaskFilter(
+            userId,
+            req.getTitle(),
+            req.getDescription(),
+            req.getCompleted(),
+            req.getPriority(),
+            parseDateTime(req.getDueBefore()),
+            parseDateTime(req.getDueAfter()),
+            search,
+            ids
+        );
+    }
 
     private Pageable createPageable(TaskFilterRequest filterRequest) {
         Sort sort = Sort.by(
@@ -199,66 +283,147 @@ public class TaskService {
         }
     }
 
-   public TaskShare shareTask(Long taskId, String username, SharePermission permission) {
-        UserModel currentUser = getCurrentUser();
-        UserModel targetUser = userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+    // One transaction for all recipients: one IN query resolves the users, one loads their existing
+    // shares, then new shares are inserted and changed ones updated as JDBC batches
+    @Transactional
+    public TaskShareResponse shareTask(Long taskId, List<TaskShareRequest> recipients) {
+        Long currentUserId = currentUser.getUserId();
 
-        Task task = taskRepository.findByIdAndUser(taskId, currentUser)
+        Task task = taskRepository.findByIdAndUserId(taskId, currentUserId)
             .orElseThrow(() -> new RuntimeException("Task not found or access denied"));
 
-        // Make task shareable if not already
-        if (!task.getIsShareable()) {
-            task.setIsShareable(true);
-            taskRepository.save(task);
-        }
-        // Create it in the TaskShareRepository
+        Set<String> usernames = recipients.stream()
+            .filter(Objects::nonNull)
+            .map(TaskShareRequest::getUsername)
+            .filter(username -> username != null && !username.isBlank())
+            .collect(Collectors.toSet());
+        Map<String, UserModel> users = usernames.isEmpty()
+            ? Map.of()
+            : userRepository.findByUsernameIn(usernames).stream()
+                .collect(Collectors.toMap(UserModel::getUsername, Function.identity()));
+        Map<Long, TaskShare> existing = users.isEmpty()
+            ? Map.of()
+            : taskShareRepository.findByTaskIdAndSharedWithIds(taskId, users.values().stream().map(UserModel::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(share -> share.getSharedWith().getId(), Function.identity()));
+
+        TaskShareResult[] results = new TaskShareResult[recipients.size()];
+        List<TaskShare> created = new ArrayList<>();
+        Map<Long, SharePermission> granted = new HashMap<>();
+        Map<Long, SharePermission> changed = new HashMap<>();
+        Set<String> seen = new HashSet<>();
+
+        for (int i = 0; i < recipients.size(); i++) {
+            TaskShareRequest recipient = recipients.get(i);
+            String username = recipient == null ? null : recipient.getUsername();
+            if (username == null || username.isBlank()) {
+                results[i] = new TaskShareResult(i, username, Status.INVALID, null, "Username is required");
+                continue;
+            }
+            SharePermission permission = recipient.getPermission();
+            if (permission == null) {
+                results[i] = new TaskShareResult(i, username, Status.INVALID, null, "Permission is required");
+                continue;
+            }
+            if (!seen.add(username)) {
+                results[i] = new TaskShareResult(i, username, Status.INVALID, null, "Recipient listed more than once");
+                continue;
+            }
+            UserModel user = users.get(username);
+            if (user == null) {
+                results[i] = new TaskShareResult(i, username, Status.USER_NOT_FOUND, null, "User not found");
+                continue;
+            }
+            if (user.getId().equals(currentUserId)) {
+                results[i] = new TaskShareResult(i, username, Status.INVALID, null, "Cannot share a task with its owner");
+                continue;
+            }
 
-        TaskShare share = new TaskShare();
-        share.setTask(task);
-        share.setSharedWith(targetUser);
-        share.setPermission(permission);
-        taskShareRepository.save(share);
+            // (task_id, shared_with) is unique: an existing share has its permission changed instead
+            TaskShare share = existing.get(user.getId());
+            if (share == null) {
+                share = new TaskShare();
+                share.setTask(task);
+                share.setSharedWith(user);
+                share.setPermission(permission);
+                created.add(share);
+                changed.put(user.getId(), permission);
+                results[i] = new TaskShareResult(i, username, Status.SHARED, permission, null);
+            } else if (share.getPermission() == permission) {
+                results[i] = new TaskShareResult(i, username, Status.UNCHANGED, permission, null);
+            } else {
+                share.setPermission(permission);
+                changed.put(user.getId(), permission);
+                results[i] = new TaskShareResult(i, username, Status.UPDATED, permission, null);
+            }
+            granted.put(user.getId(), permission);
+        }
 
-        return share;
-   }
+        // Make task shareable if not already (flushed with the shares, no separate save)
+        boolean rowChanged = !granted.isEmpty() && !task.getIsShareable();
+        if (rowChanged) {
+            task.setIsShareable(true);
+        }
+        taskShareRepository.saveAll(created);
+        // Flushed here so a concurrent share with the same recipient fails this call on the unique constraint
+        taskShareRepository.flush();
+        TransactionCallbacks.afterCommit(() -> {
+            granted.forEach((userId, permission) -> permissionIndex.put(taskId, userId, permission));
+            // The flag flip also moves updatedAt, which the owner's listings show
+            if (rowChanged) {
+                changeVersions.bump(currentUserId);
+            }
+            changed.forEach((userId, permission) ->
+                auditLog.record(AuditAction.SHARE, currentUserId, taskId, userId, permission));
+        });
+
+        int failed = (int) Arrays.stream(results)
+            .filter(result -> result.getStatus() == Status.USER_NOT_FOUND || result.getStatus() == Status.INVALID)
+            .count();
+        return new TaskShareResponse(taskId, Arrays.asList(results), results.length - failed, failed);
+    }
 
     public void removeShare(Long taskId, String username) {
-        UserModel currentUser = getCurrentUser();
+        Long currentUserId = currentUser.getUserId();
         UserModel targetUser = userRepository.findByUsername(username)
             .orElseThrow(() -> new RuntimeException("User not found"));
 
-        taskRepository.findByIdAndUser(taskId, currentUser)
+        taskRepository.findByIdAndUserId(taskId, currentUserId)
             .orElseThrow(() -> new RuntimeException("Task not found or access denied"));
 
-        taskShareRepository.deleteByTaskIdAndSharedWith(taskId, targetUser);
+        long removed = taskShareRepository.deleteByTaskIdAndSharedWith(taskId, targetUser);
+        permissionIndex.remove(taskId, targetUser.getId());
+        // Unsharing a task that was not shared with the user changes nothing worth auditing
+        if (removed > 0) {
+            auditLog.record(AuditAction.UNSHARE, currentUserId, taskId, targetUser.getId(), null);
+        }
     }
 
-    public List<TaskResponse> getSharedTasks() {
-        UserModel user = getCurrentUser();
-        
-        List<TaskShare> shares = taskShareRepository.findBySharedWith(user);
-        // Check if user has any shared tasks
-        if (shares.isEmpty()) {
-            return List.of(); // Return empty list if no shared tasks
+    @Transactional(readOnly = true)
+    public SharedTaskPageResponse getSharedTasks(int page, int size) {
+        Long userId = currentUser.getUserId();
 
-        }
-        
-        return shares.stream()
-            .map(share -> convertToResponse(share.getTask()))
-            .collect(Collectors.toList());
+        Page<SharedTaskResponse> shared = taskShareRepository.findSharedTasks(userId, PageRequest.of(page, size));
+
+        return new SharedTaskPageResponse(
+            shared.getContent(),
+            shared.getNumber(),
+            shared.getSize(),
+            shared.getTotalElements(),
+            shared.getTotalPages()
+        );
     }
 
     public TaskResponse editTask(Long taskId, TaskRequest request) {
-        UserModel user = getCurrentUser();
-        
-        Task task = taskRepository.findByIdAndUser(taskId, user)
+        Long userId = currentUser.getUserId();
+    
+        // Owner or a user the task is shared with; tasks the user cannot see are reported as missing
+        Task task = taskRepository.findById(taskId)
+            .filter(found -> permissionService.canView(found, userId))
             .orElseThrow(() -> new RuntimeException("Task not found or access denied"));
 
         // Validate edit access
-        if (!hasEditAccess(task, user)) {
-            throw new RuntimeException("Access denied: You don't have permission to edit this task");
-        }
+        permissionService.validateEditAccess(task, userId);
 
         // Update fields
         task.setTitle(request.getTitle());
@@ -276,20 +441,10 @@ public class TaskService {
         }
 
         Task savedTask = taskRepository.save(task);
+        searchIndex.index(savedTask);
+        // The change shows in the owner's listings, whoever made it
+        changeVersions.bump(savedTask.getUser().getId());
+        auditLog.record(AuditAction.EDIT, userId, taskId);
         return convertToResponse(savedTask);
     }
-
-    private boolean hasEditAccess(Task task, UserModel user) {
-        // Owner has edit access
-        if (task.getUser().equals(user)) {
-            return true;
-        }
-
-        // Check if user has EDIT or MANAGE permission
-        return task.getShares().stream()
-            .filter(share -> share.getSharedWith().equals(user))
-            .anyMatch(share -> 
-                share.getPermission() == SharePermission.EDIT || 
-                share.getPermission() == SharePermission.MANAGE);
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,174 @@
+package com.ryanm.auth.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Revoked access tokens, checked by JwtFilter on every authenticated request.
+ * Two kinds of entry: a single token (logout), keyed by its jti until its exp,
+ * and a user cut-off (logout everywhere) that revokes every token of the user
+ * issued up to that moment, kept until the last of those tokens has expired.
+ *
+ * The exact entries sit behind a Bloom filter over primitive keys. A token that
+ * was never revoked, which is nearly every request, is answered by a few bit
+ * probes with no allocation and no lock; only a filter hit consults the exact
+ * maps. Expired entries are purged on a schedule and the filter rebuilt from
+ * what is left, since a Bloom filter cannot delete.
+ *
+ * Entries live in memory only: a restart forgets them, and tokens revoked
+ * before it are accepted again until their exp.
+ */
+@Component
+public class TokenRevocationList {
+
+    // Mixed into user keys so a userId and a jti with the same value land on different bits
+    private static final long USER_KEY_SALT = 0x632BE59BD9B4E019L;
+
+    private final long accessTokenLifetime;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+
+    // jti -> exp and userId -> cut-off, both in epoch millis
+    private final Map<Long, Long> revokedTokens = new ConcurrentHashMap<>();
+    private final Map<Long, Long> revokedUsers = new ConcurrentHashMap<>();
+
+    // Replaced whole on purge; writers hold the monitor so an add cannot land in a filter being discarded
+    private volatile BloomFilter filter;
+
+    public TokenRevocationList(
+            @Value("${jwt.expiration}") long accessTokenLifetime,
+            @Value("${auth.revocation.expected-entries:100000}") int expectedEntries,
+            @Value("${auth.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.accessTokenLifetime = accessTokenLifetime;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        Long jti = token.id();
+        Long userId = token.userId();
+        BloomFilter current = filter;
+        boolean maybeToken = jti != null && current.mightContain(tokenKey(jti));
+        boolean maybeUser = userId != null && current.mightContain(userKey(userId));
+        if (!maybeToken && !maybeUser) {
+            return false;
+        }
+
+        long now = System.currentTimeMillis();
+        if (maybeToken) {
+            Long expiresAt = revokedTokens.get(jti);
+            if (expiresAt != null && expiresAt > now) {
+                return true;
+            }
+        }
+        if (maybeUser) {
+            Long cutoff = revokedUsers.get(userId);
+            return cutoff != null && issuedAt(token) <= cutoff;
+        }
+        return false;
+    }
+
+    // Logout: this token stops working now instead of at its exp
+    public synchronized void revoke(VerifiedToken token) {
+        if (token.id() == null) {
+            // Issued before tokens carried a jti; only a user cut-off can reach it
+            if (token.userId() != null) {
+                revokeUser(token.userId());
+            }
+            return;
+        }
+        revokedTokens.put(token.id(), token.expiration().toEpochMilli());
+        filter.add(tokenKey(token.id()));
+    }
+
+    // Logout everywhere: every token of the user issued up to now stops working
+    public synchronized void revokeUser(Long userId) {
+        revokedUsers.merge(userId, System.currentTimeMillis(), Math::max);
+        filter.add(userKey(userId));
+    }
+
+    // Drops entries no live token can match and rebuilds the filter without them
+    @Scheduled(fixedDelayString = "${auth.revocation.purge-interval:10m}")
+    public synchronized void purgeExpired() {
+        long now = System.currentTimeMillis();
+        boolean removed = revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        removed |= revokedUsers.values().removeIf(cutoff -> cutoff + accessTokenLifetime <= now);
+        int entries = revokedTokens.size() + revokedUsers.size();
+        if (!removed && entries <= expectedEntries) {
+            return;
+        }
+
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, entries * 2), falsePositiveRate);
+        revokedTokens.keySet().forEach(jti -> rebuilt.add(tokenKey(jti)));
+        revokedUsers.keySet().forEach(userId -> rebuilt.add(userKey(userId)));
+        filter = rebuilt;
+    }
+
+    // Access-token jtis carry their issue time; anything else falls back to iat, conservatively 0 when absent
+    private static long issuedAt(VerifiedToken token) {
+        if (token.id() != null && !token.isRefreshToken()) {
+            return JwtService.jtiIssuedAt(token.id());
+        }
+        return token.issuedAt() != null ? token.issuedAt().toEpochMilli() : 0L;
+    }
+
+    private static long tokenKey(long jti) {
+        return mix(jti);
+    }
+
+    private static long userKey(long userId) {
+        return mix(userId ^ USER_KEY_SALT);
+    }
+
+    // SplitMix64 finalizer: sequential ids spread over all 64 bits
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Power-of-two bit array probed k times by double hashing of one 64-bit key
+    private static final class BloomFilter {
+
+        private final AtomicLongArray words;
+        private final long mask;
+        private final int hashes;
+
+        BloomFilter(int expectedEntries, double falsePositiveRate) {
+            long optimalBits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            long bits = Long.highestOneBit(Math.max(64, optimalBits - 1)) << 1;
+            this.words = new AtomicLongArray((int) (bits >>> 6));
+            this.mask = bits - 1;
+            this.hashes = (int) Math.max(1, Math.min(16, Math.round((double) bits / expectedEntries * Math.log(2))));
+        }
+
+        void add(long key) {
+            long h1 = key;
+            long h2 = (key >>> 32) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = (h1 + i * h2) & mask;
+                int word = (int) (bit >>> 6);
+                long bitMask = 1L << bit;
+                words.getAndAccumulate(word, bitMask, (current, set) -> current | set);
+            }
+        }
+
+        boolean mightContain(long key) {
+            long h1 = key;
+            long h2 = (key >>> 32) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = (h1 + i * h2) & mask;
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -16,10 +17,13 @@ import lombok.AllArgsConstructor;
 
 @Service
 @AllArgsConstructor
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserRepository repository;
+
+    @Autowired
+    private PrincipalCache principalCache;
     
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -36,5 +40,18 @@ public class UserService implements UserDetailsService {
         }
     }
     
+    // Called by DaoAuthenticationProvider after a successful login whose stored hash needs re-encoding
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        repository.findByUsername(user.getUsername()).ifPresent(userObj -> {
+            userObj.setPassword(newPassword);
+            repository.save(userObj);
+            principalCache.invalidate(userObj.getId());
+        });
+        return User.withUserDetails(user)
+                .password(newPassword)
+                .build();
+    }
+
     // Additional methods for user management can be added here
 }
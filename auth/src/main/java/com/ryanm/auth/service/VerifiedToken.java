@@ -0,0 +1,60 @@
+package com.ryanm.auth.service;
+
+import java.time.Instant;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+
+/**
+ * Immutable view of a JWT whose signature and expiry have already been checked.
+ * Built once per token by {@link JwtService#verify(String)} and safe to share
+ * between threads and requests.
+ */
+public record VerifiedToken(
+        Long id,
+        String subject,
+        Long userId,
+        String tokenType,
+        Instant issuedAt,
+        Instant expiration,
+        Long familyId) {
+
+    // Every token this service issues carries exp; a signed token without one is refused, not trusted forever
+    static VerifiedToken from(Claims claims) {
+        if (claims.getExpiration() == null) {
+            throw new JwtException("Token has no expiration");
+        }
+        return new VerifiedToken(
+                parseId(claims.getId()),
+                claims.getSubject(),
+                claims.get("userId", Long.class),
+                claims.get("tokenType", String.class),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration().toInstant(),
+                claims.get("familyId", Long.class));
+    }
+
+    // Every jti this service issues is a number; anything else is treated as absent
+    private static Long parseId(String id) {
+        if (id == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public boolean isRefreshToken() {
+        return "refresh".equals(tokenType);
+    }
+
+    public boolean isExpired(Instant now) {
+        return !expiration.isAfter(now);
+    }
+
+    public boolean isValidFor(String username) {
+        return subject != null && subject.equals(username) && !isExpired(Instant.now());
+    }
+}
@@ -0,0 +1,38 @@
+-- Schema as previously generated by ddl-auto=update
+CREATE SEQUENCE user_model_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE user_model (
+    id BIGINT NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255),
+    username VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_user_model PRIMARY KEY (id),
+    CONSTRAINT uk_user_model_username UNIQUE (username),
+    CONSTRAINT uk_user_model_email UNIQUE (email)
+);
+
+CREATE TABLE tasks (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    completed BOOLEAN NOT NULL,
+    created_at TIMESTAMP(6),
+    description VARCHAR(500),
+    due_date TIMESTAMP(6),
+    priority ENUM('HIGH', 'LOW', 'MEDIUM'),
+    title VARCHAR(255) NOT NULL,
+    updated_at TIMESTAMP(6),
+    user_id BIGINT NOT NULL,
+    is_shareable BOOLEAN NOT NULL,
+    CONSTRAINT pk_tasks PRIMARY KEY (id),
+    CONSTRAINT fk_tasks_user FOREIGN KEY (user_id) REFERENCES user_model (id)
+);
+
+CREATE TABLE task_shares (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    permission ENUM('EDIT', 'MANAGE', 'VIEW') NOT NULL,
+    shared_at TIMESTAMP(6) NOT NULL,
+    shared_with BIGINT NOT NULL,
+    task_id BIGINT NOT NULL,
+    CONSTRAINT pk_task_shares PRIMARY KEY (id),
+    CONSTRAINT fk_task_shares_task FOREIGN KEY (task_id) REFERENCES tasks (id),
+    CONSTRAINT fk_task_shares_user FOREIGN KEY (shared_with) REFERENCES user_model (id)
+);
@@ -0,0 +1,13 @@
+-- Every task listing filters on the owner first, then sorts or ranges on one column.
+-- Leading with user_id lets each index serve both the owner filter and the
+-- ORDER BY / range, instead of reading all of a user's rows and sorting them.
+
+-- Default listing and search order (created_at desc, id desc), and keyset pages on
+-- created_at; declared descending because H2 does not scan an index backwards
+CREATE INDEX idx_tasks_user_created ON tasks (user_id, created_at DESC, id DESC);
+
+-- Status / priority filters, alone or combined
+CREATE INDEX idx_tasks_user_completed_priority ON tasks (user_id, completed, priority);
+
+-- Due-date ranges (dueBefore / dueAfter / between)
+CREATE INDEX idx_tasks_user_due ON tasks (user_id, due_date);
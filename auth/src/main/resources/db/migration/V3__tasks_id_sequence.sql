@@ -0,0 +1,6 @@
+-- Task ids move from IDENTITY (which forces one INSERT round trip per row) to a
+-- pooled sequence so Hibernate can batch inserts. Hibernate's pooled optimizer
+-- treats each value as the top of a 50-id block, so the first value handed out
+-- must be at least MAX(id) + 50 for the first block to start above existing rows.
+CREATE SEQUENCE tasks_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE tasks_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM tasks);
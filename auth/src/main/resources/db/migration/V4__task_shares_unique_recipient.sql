@@ -0,0 +1,15 @@
+-- A task is shared with a user at most once; sharing again changes the permission.
+-- Keep the newest row of any existing duplicates before the constraint goes on.
+DELETE FROM task_shares s
+WHERE EXISTS (
+    SELECT 1 FROM task_shares newer
+    WHERE newer.task_id = s.task_id
+      AND newer.shared_with = s.shared_with
+      AND newer.id > s.id
+);
+
+ALTER TABLE task_shares ADD CONSTRAINT uk_task_shares_task_user UNIQUE (task_id, shared_with);
+
+-- Share ids move to a pooled sequence, as task ids did in V3, so a multi-recipient share inserts in one batch
+CREATE SEQUENCE task_shares_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE task_shares_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM task_shares);
@@ -0,0 +1,19 @@
+-- Server-side refresh tokens. The JWT's jti is the row id, so a refresh touches
+-- one row by primary key; family_id groups every token rotated from one login so
+-- a reused token can revoke the whole chain. Status is the RefreshToken.Status
+-- ordinal (0 active, 1 rotated, 2 revoked). Rows are purged once expired.
+CREATE SEQUENCE refresh_tokens_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE refresh_tokens (
+    id BIGINT NOT NULL,
+    family_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL,
+    status TINYINT NOT NULL,
+    CONSTRAINT pk_refresh_tokens PRIMARY KEY (id),
+    CONSTRAINT fk_refresh_tokens_user FOREIGN KEY (user_id) REFERENCES user_model (id)
+);
+
+CREATE INDEX idx_refresh_tokens_family ON refresh_tokens (family_id);
+CREATE INDEX idx_refresh_tokens_user ON refresh_tokens (user_id);
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
@@ -0,0 +1,71 @@
+package com.ryanm.auth.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import com.ryanm.auth.audit.AuditLog.Backpressure;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuditLogTests {
+
+    @TempDir
+    Path directory;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void idleWriterIsWokenByTheNextEntry() throws Exception {
+        // An fsync interval far longer than the test: only the producer's unpark can get the entry written in time
+        AuditLog auditLog = new AuditLog(registry, true, directory, 64, Backpressure.DROP, 16,
+                DataSize.ofKilobytes(64), Duration.ofMinutes(10));
+        auditLog.afterPropertiesSet();
+        try {
+            Thread.sleep(100);
+
+            auditLog.record(AuditAction.CREATE, 1L, 42L);
+
+            assertThat(awaitWritten(1, Duration.ofSeconds(5))).isEqualTo(1);
+        } finally {
+            auditLog.destroy();
+        }
+
+        List<AuditRecord> records = new ArrayList<>();
+        AuditLogReader.read(directory, records::add);
+        assertThat(records).extracting(AuditRecord::taskId).containsExactly(42L);
+    }
+
+    @Test
+    void writerDoesNotRunBeforeInitialization() throws Exception {
+        AuditLog auditLog = new AuditLog(registry, true, directory, 64, Backpressure.DROP, 16,
+                DataSize.ofKilobytes(64), Duration.ofSeconds(1));
+
+        auditLog.record(AuditAction.CREATE, 1L, 42L);
+        Thread.sleep(100);
+        assertThat(registry.get("auth.audit.written").counter().count()).isZero();
+
+        auditLog.afterPropertiesSet();
+        auditLog.destroy();
+        assertThat(registry.get("auth.audit.written").counter().count()).isEqualTo(1);
+    }
+
+    private double awaitWritten(double expected, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        double written;
+        while ((written = registry.get("auth.audit.written").counter().count()) < expected
+                && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        return written;
+    }
+}
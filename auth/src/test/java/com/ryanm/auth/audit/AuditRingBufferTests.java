@@ -0,0 +1,121 @@
+package com.ryanm.auth.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class AuditRingBufferTests {
+
+    private final List<long[]> drained = new ArrayList<>();
+    private final AuditRingBuffer.Sink sink = (timestamp, actorId, taskId, targetUserId, action, permission) ->
+            drained.add(new long[] {timestamp, actorId, taskId, targetUserId, action, permission});
+
+    @Test
+    void wrapsAroundKeepingOrderAndFields() {
+        AuditRingBuffer buffer = new AuditRingBuffer(4);
+
+        // Ten laps over four slots, draining three at a time so head and tail drift across the boundary
+        long next = 0;
+        for (int lap = 0; lap < 10; lap++) {
+            for (int i = 0; i < 3; i++, next++) {
+                assertThat(buffer.offer(next, next + 1, next + 2, next + 3, (int) (next % 5), (int) (next % 3) - 1)).isTrue();
+            }
+            assertThat(buffer.drain(sink, 3)).isEqualTo(3);
+        }
+
+        assertThat(drained).hasSize(30);
+        for (int i = 0; i < drained.size(); i++) {
+            assertThat(drained.get(i)).containsExactly(i, i + 1, i + 2, i + 3, i % 5, i % 3 - 1);
+        }
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void refusesEntriesWhenFullWithoutOverwriting() {
+        AuditRingBuffer buffer = new AuditRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i, 0, 0, 0, 0, -1)).isTrue();
+        }
+
+        assertThat(buffer.offer(99, 0, 0, 0, 0, -1)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+
+        assertThat(buffer.drain(sink, 1)).isEqualTo(1);
+        assertThat(buffer.offer(4, 0, 0, 0, 0, -1)).isTrue();
+        assertThat(buffer.offer(99, 0, 0, 0, 0, -1)).isFalse();
+
+        buffer.drain(sink, Integer.MAX_VALUE);
+        assertThat(drained).extracting(entry -> entry[0]).containsExactly(0L, 1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void drainStopsAtTheFirstUnpublishedSlot() {
+        AuditRingBuffer buffer = new AuditRingBuffer(8);
+        buffer.offer(1, 0, 0, 0, 0, -1);
+        buffer.offer(2, 0, 0, 0, 0, -1);
+
+        assertThat(buffer.drain(sink, 10)).isEqualTo(2);
+        assertThat(buffer.drain(sink, 10)).isZero();
+    }
+
+    @Test
+    void rejectsCapacityThatIsNotAPowerOfTwo() {
+        assertThatThrownBy(() -> new AuditRingBuffer(6)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AuditRingBuffer(1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void concurrentProducersLoseNothing() throws Exception {
+        AuditRingBuffer buffer = new AuditRingBuffer(64);
+        int producers = 4;
+        int perProducer = 10_000;
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            for (int p = 0; p < producers; p++) {
+                long actor = p;
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (long i = 0; i < perProducer; i++) {
+                        while (!buffer.offer(i, actor, 0, 0, 0, -1)) {
+                            Thread.yield();
+                        }
+                    }
+                });
+            }
+            start.countDown();
+
+            long[] nextPerProducer = new long[producers];
+            int[] outOfOrder = new int[1];
+            int total = 0;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (total < producers * perProducer && System.nanoTime() < deadline) {
+                total += buffer.drain((timestamp, actorId, taskId, targetUserId, action, permission) -> {
+                    // Each producer's entries arrive in the order it published them
+                    if (timestamp != nextPerProducer[(int) actorId]++) {
+                        outOfOrder[0]++;
+                    }
+                }, 16);
+            }
+
+            assertThat(total).isEqualTo(producers * perProducer);
+            assertThat(outOfOrder[0]).isZero();
+            assertThat(nextPerProducer).containsOnly(perProducer);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.ryanm.auth.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AuditSegmentWriterTests {
+
+    private static final long SEGMENT_SIZE = AuditSegment.HEADER_SIZE + 8L * AuditSegment.RECORD_SIZE;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void resumesAfterTheLastIntactRecord() throws IOException {
+        try (AuditSegmentWriter writer = new AuditSegmentWriter(directory, SEGMENT_SIZE)) {
+            append(writer, 101, 102, 103);
+        }
+        // A crash mid-write: the third record's checksum no longer matches its fields
+        tear(AuditSegment.path(directory, 1), 2);
+
+        try (AuditSegmentWriter writer = new AuditSegmentWriter(directory, SEGMENT_SIZE)) {
+            append(writer, 201, 202);
+        }
+
+        List<AuditRecord> records = read();
+        assertThat(records).extracting(AuditRecord::sequence).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(records).extracting(AuditRecord::actorId).containsExactly(101L, 102L, 201L, 202L);
+        assertThat(AuditSegment.list(directory)).hasSize(1);
+    }
+
+    @Test
+    void continuesTheSequenceAcrossRestarts() throws IOException {
+        try (AuditSegmentWriter writer = new AuditSegmentWriter(directory, SEGMENT_SIZE)) {
+            append(writer, 1, 2);
+        }
+        try (AuditSegmentWriter writer = new AuditSegmentWriter(directory, SEGMENT_SIZE)) {
+            append(writer, 3);
+        }
+
+        assertThat(read()).extracting(AuditRecord::sequence).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void rotatesToANewSegmentWhenFull() throws IOException {
+        try (AuditSegmentWriter writer = new AuditSegmentWriter(directory, SEGMENT_SIZE)) {
+            for (long actor = 1; actor <= 20; actor++) {
+                append(writer, actor);
+            }
+        }
+
+        assertThat(AuditSegment.list(directory))
+                .extracting(path -> path.getFileName().toString())
+                .containsExactly(
+                        AuditSegment.path(directory, 1).getFileName().toString(),
+                        AuditSegment.path(directory, 9).getFileName().toString(),
+                        AuditSegment.path(directory, 17).getFileName().toString());
+        assertThat(read()).extracting(AuditRecord::actorId).containsExactlyElementsOf(
+                LongStream.rangeClosed(1, 20).boxed().toList());
+    }
+
+    // One record per actor, each after the reserve() the audit writer makes before draining
+    private static void append(AuditSegmentWriter writer, long... actors) throws IOException {
+        for (long actor : actors) {
+            assertThat(writer.reserve()).isPositive();
+            writer.accept(1_700_000_000_000L, actor, 7, 0, AuditAction.CREATE.ordinal(), -1);
+        }
+    }
+
+    private static void tear(Path segment, int record) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long actorOffset = AuditSegment.HEADER_SIZE + (long) record * AuditSegment.RECORD_SIZE + 16;
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) 0xFF}), actorOffset);
+        }
+    }
+
+    private List<AuditRecord> read() throws IOException {
+        List<AuditRecord> records = new ArrayList<>();
+        AuditLogReader.read(directory, records::add);
+        return records;
+    }
+}
@@ -0,0 +1,196 @@
+package com.ryanm.auth.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.ryanm.auth.AuthApplication;
+
+/**
+ * Load comparison of thread-per-request (platform Tomcat workers) against
+ * virtual threads on the task read endpoints. Each mode boots the application
+ * in-process on a fresh in-memory H2 database, seeds one user with tasks, and
+ * drives GET /api/tasks and GET /api/tasks/search from many concurrent clients.
+ *
+ * <p>Not a unit test (surefire does not pick it up). Run after {@code mvn test-compile}:
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *     com.ryanm.auth.benchmark.ThreadModeBenchmark [concurrency] [seconds] [tasks]
+ * </pre>
+ * Client and server share the machine, so compare the two modes against each
+ * other rather than reading the absolute numbers as capacity.
+ */
+public final class ThreadModeBenchmark {
+
+    private static final Pattern ACCESS_TOKEN = Pattern.compile("\"accessToken\":\"([^\"]+)\"");
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int tasks = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+        for (boolean virtual : new boolean[] {false, true}) {
+            Result result = run(virtual, concurrency, seconds, tasks);
+            System.out.printf("%-16s concurrency=%d  %8.0f req/s  p50=%6.2f ms  p99=%7.2f ms  p99.9=%7.2f ms  errors=%d%n",
+                    virtual ? "virtual-threads" : "platform-threads", concurrency,
+                    result.throughput(), result.percentileMillis(0.50), result.percentileMillis(0.99),
+                    result.percentileMillis(0.999), result.errors());
+        }
+    }
+
+    private static Result run(boolean virtual, int concurrency, int seconds, int tasks) throws Exception {
+        // Command-line style arguments so they override application.properties
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(AuthApplication.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--spring.datasource.url=jdbc:h2:mem:bench-" + virtual + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                "--auth.password.calibrate=false",
+                "--server.tomcat.max-connections=" + (concurrency * 2));
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String base = "http://localhost:" + port + "/api";
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            String token = seed(client, base, tasks);
+            List<HttpRequest> requests = List.of(
+                    get(base + "/tasks", token),
+                    get(base + "/tasks/search?title=task&completed=false&size=20", token));
+
+            // Warm-up so both modes are measured with JIT-compiled code and a full connection pool
+            drive(client, requests, concurrency, Duration.ofSeconds(Math.max(3, seconds / 4)));
+            return drive(client, requests, concurrency, Duration.ofSeconds(seconds));
+        } finally {
+            context.close();
+        }
+    }
+
+    private static String seed(HttpClient client, String base, int tasks) throws Exception {
+        HttpResponse<String> signup = client.send(
+                post(base + "/users/signup", null,
+                        "{\"username\":\"bench\",\"email\":\"bench@example.com\",\"password\":\"bench-password\"}"),
+                HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = ACCESS_TOKEN.matcher(signup.body());
+        if (!matcher.find()) {
+            throw new IllegalStateException("Signup failed: " + signup.body());
+        }
+        String token = matcher.group(1);
+        for (int i = 0; i < tasks; i++) {
+            client.send(post(base + "/tasks", token,
+                            "{\"title\":\"task " + i + "\",\"description\":\"benchmark task " + i + "\",\"priority\":\"HIGH\"}"),
+                    HttpResponse.BodyHandlers.discarding());
+        }
+        return token;
+    }
+
+    private static Result drive(HttpClient client, List<HttpRequest> requests, int concurrency, Duration duration)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<ClientStats> perClient = new ArrayList<>(concurrency);
+        CountDownLatch done = new CountDownLatch(concurrency);
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                ClientStats stats = new ClientStats();
+                perClient.add(stats);
+                int offset = c;
+                clients.submit(() -> {
+                    try {
+                        while (System.nanoTime() < deadline) {
+                            // Every request counts toward alternation and throughput; only the latency samples are capped
+                            HttpRequest request = requests.get((int) ((offset + stats.sent) % requests.size()));
+                            long start = System.nanoTime();
+                            try {
+                                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                                if (response.statusCode() != 200) {
+                                    errors.incrementAndGet();
+                                }
+                            } catch (Exception e) {
+                                errors.incrementAndGet();
+                            }
+                            stats.record(System.nanoTime() - start);
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        }
+
+        long sent = perClient.stream().mapToLong(stats -> stats.sent).sum();
+        long[] latencies = new long[perClient.stream().mapToInt(stats -> stats.sampled).sum()];
+        int i = 0;
+        for (ClientStats stats : perClient) {
+            System.arraycopy(stats.samples, 0, latencies, i, stats.sampled);
+            i += stats.sampled;
+        }
+        Arrays.sort(latencies);
+        return new Result(latencies, sent / (duration.toNanos() / 1e9), errors.get());
+    }
+
+    private static HttpRequest get(String uri, String token) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    private static HttpRequest post(String uri, String token, String json) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(uri))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    // One client's requests; written by its own thread only and read after the latch
+    private static final class ClientStats {
+
+        final long[] samples = new long[1 << 16];
+        int sampled;
+        long sent;
+
+        void record(long latencyNanos) {
+            sent++;
+            if (sampled < samples.length) {
+                samples[sampled++] = latencyNanos;
+            }
+        }
+    }
+
+    private record Result(long[] sortedLatencies, double throughput, long errors) {
+        double percentileMillis(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(percentile * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.ryanm.auth.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.support.GenericApplicationContext;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class MonitoredDataSourceTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SqlStatementMonitor monitor = new SqlStatementMonitor(registry, Duration.ofMinutes(1), 0, 5, 100);
+
+    @Test
+    void timesPreparedStatementsByShape() throws Exception {
+        try (HikariDataSource pool = pool("monitored-statements");
+             MonitoredDataSource dataSource = new MonitoredDataSource(pool, () -> monitor);
+             Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("select 1 from dual where 2 = ?")) {
+            statement.setInt(1, 2);
+            try (ResultSet rows = statement.executeQuery()) {
+                assertThat(rows.next()).isTrue();
+            }
+        }
+
+        assertThat(registry.get("auth.sql").tag("operation", "select").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void contextShutdownClosesTheWrappedPool() {
+        HikariDataSource pool = pool("monitored-close");
+        try (GenericApplicationContext context = new GenericApplicationContext()) {
+            // Registered the way the post-processor leaves it: the wrapper is the bean, the destroy method inferred
+            RootBeanDefinition definition = new RootBeanDefinition(MonitoredDataSource.class,
+                    () -> new MonitoredDataSource(pool, () -> monitor));
+            definition.setDestroyMethodName(AbstractBeanDefinition.INFER_METHOD);
+            context.registerBeanDefinition("dataSource", definition);
+            context.refresh();
+            assertThat(pool.isClosed()).isFalse();
+        }
+
+        assertThat(pool.isClosed()).isTrue();
+    }
+
+    private static HikariDataSource pool(String name) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:" + name);
+        pool.setMaximumPoolSize(1);
+        return pool;
+    }
+}
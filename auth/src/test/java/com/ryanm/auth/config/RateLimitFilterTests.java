@@ -0,0 +1,104 @@
+package com.ryanm.auth.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+
+class RateLimitFilterTests {
+
+    private final RateLimitFilter filter = new RateLimitFilter(
+            new ObjectMapper(), true, 100, "3/1m", "1/1m", "5/1m", "3/1m", "30/1m");
+
+    @Test
+    void answersOverTheLimitWith429AndRetryAfter() throws Exception {
+        assertThat(login("10.0.0.1", "alice").getStatus()).isEqualTo(HttpStatus.OK.value());
+
+        MockHttpServletResponse rejected = login("10.0.0.2", "Alice");
+
+        assertThat(rejected.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(Long.parseLong(rejected.getHeader("Retry-After"))).isBetween(1L, 60L);
+        assertThat(rejected.getContentAsString()).contains("Too many requests");
+    }
+
+    @Test
+    void chargesEveryCallToTheClientIp() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertThat(login("10.0.0.3", "user" + i).getStatus()).isEqualTo(HttpStatus.OK.value());
+        }
+
+        assertThat(login("10.0.0.3", "user3").getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    @Test
+    void replaysTheBufferedBodyToTheController() throws Exception {
+        byte[] body = "{\"username\":\"carol\",\"password\":\"secret\"}".getBytes(StandardCharsets.UTF_8);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("10.0.0.4", body), new MockHttpServletResponse(), chain);
+
+        ServletInputStream in = chain.getRequest().getInputStream();
+        assertThat(in.isFinished()).isFalse();
+        assertThat(in.readAllBytes()).isEqualTo(body);
+        assertThat(in.isFinished()).isTrue();
+        assertThat(in.read()).isEqualTo(-1);
+        assertThat(chain.getRequest().getContentLength()).isEqualTo(body.length);
+    }
+
+    @Test
+    void notifiesAReadListenerThatTheWholeBodyIsAvailable() throws Exception {
+        byte[] body = "{\"username\":\"dave\"}".getBytes(StandardCharsets.UTF_8);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request("10.0.0.5", body), new MockHttpServletResponse(), chain);
+        ServletInputStream in = chain.getRequest().getInputStream();
+        List<String> events = new ArrayList<>();
+
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                events.add("available:" + new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public void onAllDataRead() {
+                events.add("done:" + in.isFinished());
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                events.add("error");
+            }
+        });
+
+        assertThat(events).containsExactly("available:{\"username\":\"dave\"}", "done:true");
+    }
+
+    private MockHttpServletResponse login(String ip, String username) throws ServletException, IOException {
+        byte[] body = ("{\"username\":\"" + username + "\",\"password\":\"secret\"}").getBytes(StandardCharsets.UTF_8);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(ip, body), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String ip, byte[] body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/users/login");
+        request.setRemoteAddr(ip);
+        request.setContentType("application/json");
+        request.setContent(body);
+        return request;
+    }
+}
@@ -0,0 +1,130 @@
+package com.ryanm.auth.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import com.ryanm.auth.config.SqlStatementMonitor.Shape;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SqlStatementMonitorTests {
+
+    // As Hibernate 6 prints them: aliases such as t1_0 and ts1_0 carry digits that are not literals
+    private static final String BY_IDS =
+            "select t1_0.id,t1_0.title,ts1_0.permission from tasks t1_0 left join task_shares ts1_0 on t1_0.id=ts1_0.task_id "
+            + "where t1_0.user_id=? and t1_0.id in (?,?,?) order by t1_0.created_at desc,t1_0.id desc fetch first ? rows only";
+    private static final String BY_USER = "select u1_0.id,u1_0.username from users u1_0 where u1_0.id=?";
+    private static final String BY_TASK = "select ts1_0.id,ts1_0.permission from task_shares ts1_0 where ts1_0.task_id=?";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SqlStatementMonitor monitor = new SqlStatementMonitor(registry, Duration.ofMinutes(1), 0, 3, 100);
+
+    @Test
+    void keepsHibernateAliasesAndCollapsesTheInList() {
+        assertThat(SqlStatementMonitor.normalize(BY_IDS)).isEqualTo(
+                "select t1_0.id,t1_0.title,ts1_0.permission from tasks t1_0 left join task_shares ts1_0 on t1_0.id=ts1_0.task_id "
+                + "where t1_0.user_id=? and t1_0.id in (?...) order by t1_0.created_at desc,t1_0.id desc fetch first ? rows only");
+        assertThat(SqlStatementMonitor.normalize(BY_USER)).isEqualTo(BY_USER);
+    }
+
+    @Test
+    void replacesLiteralsCommentsAndWhitespace() {
+        assertThat(SqlStatementMonitor.normalize("select * from tasks where id = 42"))
+                .isEqualTo("select * from tasks where id = ?");
+        assertThat(SqlStatementMonitor.normalize("select * from tasks where score > -1.5 and v2 = 3"))
+                .isEqualTo("select * from tasks where score > ? and v2 = ?");
+        assertThat(SqlStatementMonitor.normalize("select * from tasks where title = 'it''s 10 o''clock'"))
+                .isEqualTo("select * from tasks where title = ?");
+        assertThat(SqlStatementMonitor.normalize("/* load Task */ select *   from\ttasks -- trailing 1\n"))
+                .isEqualTo("select * from tasks");
+    }
+
+    @Test
+    void collapsesInListsOfTwoOrMore() {
+        assertThat(SqlStatementMonitor.normalize("select * from tasks where id in (?, ?)"))
+                .isEqualTo("select * from tasks where id in (?...)");
+        assertThat(SqlStatementMonitor.normalize("select * from tasks where id in (1, 2, 3, 4, 5)"))
+                .isEqualTo("select * from tasks where id in (?...)");
+        assertThat(SqlStatementMonitor.normalize("select * from tasks where id in (?)"))
+                .isEqualTo("select * from tasks where id in (?)");
+    }
+
+    @Test
+    void sameQueryWithOtherValuesIsOneShape() {
+        Shape shape = monitor.shape(BY_IDS);
+
+        assertThat(monitor.shape(BY_IDS.replace("(?,?,?)", "(?,?,?,?,?,?,?)"))).isSameAs(shape);
+        assertThat(monitor.shape("select * from tasks where id = 1"))
+                .isSameAs(monitor.shape("select * from tasks where id = 2"));
+        assertThat(shape.table).isEqualTo("tasks");
+        assertThat(shape.select).isTrue();
+        assertThat(monitor.shape("update tasks set title=? where id=?").select).isFalse();
+    }
+
+    @Test
+    void reportsEachRepeatedSelectOncePerRequestAtTheThreshold() {
+        Shape repeated = monitor.shape(BY_USER);
+        Shape belowThreshold = monitor.shape(BY_TASK);
+        Shape update = monitor.shape("update tasks set title=? where id=?");
+
+        monitor.beginRequest();
+        for (int i = 0; i < 10; i++) {
+            monitor.executed(repeated, BY_USER, 1_000);
+            monitor.executed(update, "update", 1_000);
+        }
+        monitor.executed(belowThreshold, BY_TASK, 1_000);
+        monitor.executed(belowThreshold, BY_TASK, 1_000);
+        monitor.endRequest("GET", "/api/tasks");
+
+        assertThat(nPlusOne(repeated)).isEqualTo(1);
+        assertThat(registry.find("auth.sql.n_plus_one").tag("shape", belowThreshold.id).counter()).isNull();
+        assertThat(registry.find("auth.sql.n_plus_one").tag("table", "tasks").counter()).isNull();
+
+        // Exactly at the threshold in the next request; the counts of the previous one are gone
+        monitor.beginRequest();
+        for (int i = 0; i < 3; i++) {
+            monitor.executed(repeated, BY_USER, 1_000);
+        }
+        monitor.executed(belowThreshold, BY_TASK, 1_000);
+        monitor.endRequest("GET", "/api/tasks");
+
+        assertThat(nPlusOne(repeated)).isEqualTo(2);
+        assertThat(registry.find("auth.sql.n_plus_one").tag("shape", belowThreshold.id).counter()).isNull();
+    }
+
+    @Test
+    void ignoresStatementsOutsideARequest() {
+        Shape shape = monitor.shape(BY_USER);
+
+        for (int i = 0; i < 10; i++) {
+            monitor.executed(shape, BY_USER, 1_000);
+        }
+        monitor.beginRequest();
+        monitor.endRequest("GET", "/api/tasks");
+
+        assertThat(registry.find("auth.sql.n_plus_one").counter()).isNull();
+        assertThat(shape.timer.count()).isEqualTo(10);
+    }
+
+    @Test
+    void shapesPastTheLimitShareTheOverflowShape() {
+        SqlStatementMonitor small = new SqlStatementMonitor(registry, Duration.ofMinutes(1), 0, 3, 2);
+
+        Shape first = small.shape(BY_USER);
+        Shape second = small.shape(BY_TASK);
+        Shape third = small.shape(BY_IDS);
+
+        assertThat(first).isNotSameAs(second);
+        assertThat(third.table).isEqualTo("other");
+        assertThat(small.shape("delete from tasks where id=?")).isSameAs(third);
+    }
+
+    private double nPlusOne(Shape shape) {
+        Counter counter = registry.find("auth.sql.n_plus_one").tag("shape", shape.id).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
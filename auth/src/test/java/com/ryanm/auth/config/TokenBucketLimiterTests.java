@@ -0,0 +1,80 @@
+package com.ryanm.auth.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class TokenBucketLimiterTests {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final TokenBucketLimiter limiter = TokenBucketLimiter.parse("5/1m", 100, now::get);
+
+    @Test
+    void allowsABurstOfOnePeriodThenReportsTheWait() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("alice")).isZero();
+        }
+
+        assertThat(limiter.tryAcquire("alice")).isEqualTo(TimeUnit.SECONDS.toNanos(12));
+    }
+
+    @Test
+    void refillsOneRequestPerEmissionInterval() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("alice");
+        }
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(11));
+        assertThat(limiter.tryAcquire("alice")).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(limiter.tryAcquire("alice")).isZero();
+        assertThat(limiter.tryAcquire("alice")).isEqualTo(TimeUnit.SECONDS.toNanos(12));
+    }
+
+    @Test
+    void refillsNoMoreThanOnePeriodAfterIdling() {
+        limiter.tryAcquire("alice");
+
+        now.addAndGet(TimeUnit.HOURS.toNanos(2));
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("alice")).isZero();
+        }
+        assertThat(limiter.tryAcquire("alice")).isPositive();
+    }
+
+    @Test
+    void rejectedRequestsDoNotPushTheWaitFurther() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("alice");
+        }
+
+        long first = limiter.tryAcquire("alice");
+        long second = limiter.tryAcquire("alice");
+
+        assertThat(second).isEqualTo(first);
+    }
+
+    @Test
+    void keysHaveSeparateBuckets() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("alice");
+        }
+
+        assertThat(limiter.tryAcquire("alice")).isPositive();
+        assertThat(limiter.tryAcquire("bob")).isZero();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"5", "0/1m", "5/0s", "five/1m", "5/soon"})
+    void rejectsMalformedSpecs(String spec) {
+        assertThatThrownBy(() -> TokenBucketLimiter.parse(spec, 100))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
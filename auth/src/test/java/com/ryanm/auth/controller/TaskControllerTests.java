@@ -0,0 +1,349 @@
+package com.ryanm.auth.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.jayway.jsonpath.JsonPath;
+import com.ryanm.auth.model.UserModel;
+import com.ryanm.auth.repository.UserRepository;
+import com.ryanm.auth.service.AuthenticatedUser;
+import com.ryanm.auth.service.JwtService;
+import com.ryanm.auth.service.TaskService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TaskControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void everyTaskServiceOperationIsTimed() throws Exception {
+        UserModel owner = user("timed-owner");
+        long before = serviceCalls("createTask");
+
+        long taskId = createTask(owner, "Timed");
+        getTask(owner, taskId).andExpect(status().isOk());
+
+        assertThat(serviceCalls("createTask")).isEqualTo(before + 1);
+        assertThat(serviceCalls("getTaskById")).isPositive();
+        assertThat(meterRegistry.find("auth.tasks.service").tag("method", "toString").timer()).isNull();
+    }
+
+    @Test
+    void searchPageSizeIsClampedInBothModes() throws Exception {
+        UserModel owner = user("page-size");
+        createTask(owner, "Only task");
+        String huge = Integer.toString(Integer.MAX_VALUE);
+
+        String cursorPage = search(owner, "cursor", "true", "size", huge).getResponse().getContentAsString();
+        String offsetPage = search(owner, "size", huge).getResponse().getContentAsString();
+
+        assertThat((Integer) JsonPath.read(cursorPage, "$.data.pageSize")).isEqualTo(100);
+        assertThat((List<?>) JsonPath.read(cursorPage, "$.data.tasks")).hasSize(1);
+        assertThat((Integer) JsonPath.read(offsetPage, "$.data.pageSize")).isEqualTo(100);
+    }
+
+    @Test
+    void batchReportsEveryItemOnItsOwn() throws Exception {
+        UserModel owner = user("batch-owner");
+        UserModel other = user("batch-other");
+        long foreign = createTask(other, "Not yours");
+
+        MvcResult created = batch(owner, post("/api/tasks/batch"),
+                "[{\"title\":\"First\"},{\"title\":\" \"},{\"title\":\"Bad date\",\"dueDate\":\"tomorrow\"},"
+                + "{\"title\":\"Second\",\"priority\":\"HIGH\"}]",
+                "CREATED", "INVALID", "INVALID", "CREATED");
+        assertCounts(created, 2, 2);
+        String body = created.getResponse().getContentAsString();
+        long first = ((Number) JsonPath.read(body, "$.data.results[0].id")).longValue();
+        long second = ((Number) JsonPath.read(body, "$.data.results[3].id")).longValue();
+
+        assertCounts(batch(owner, put("/api/tasks/batch"),
+                "[{\"id\":" + first + ",\"title\":\"Renamed\"},{\"id\":" + foreign + ",\"title\":\"Stolen\"},"
+                + "{\"title\":\"No id\"},{\"id\":" + second + ",\"title\":\"\"}]",
+                "UPDATED", "NOT_FOUND", "INVALID", "INVALID"), 1, 3);
+
+        // Listed twice, the first task is flipped twice and ends where it started
+        assertCounts(batch(owner, patch("/api/tasks/batch/toggle"),
+                "[" + first + "," + first + "," + second + "," + foreign + ",null]",
+                "UPDATED", "UPDATED", "UPDATED", "NOT_FOUND", "INVALID"), 3, 2);
+        getTask(owner, first)
+            .andExpect(jsonPath("$.data.title").value("Renamed"))
+            .andExpect(jsonPath("$.data.completed").value(false));
+        getTask(owner, second).andExpect(jsonPath("$.data.completed").value(true));
+
+        assertCounts(batch(owner, post("/api/tasks/batch/delete"),
+                "[" + first + "," + first + "," + foreign + ",null]",
+                "DELETED", "NOT_FOUND", "NOT_FOUND", "INVALID"), 1, 3);
+        getTask(owner, first).andExpect(status().isNotFound());
+        getTask(owner, second).andExpect(status().isOk());
+        getTask(other, foreign)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.title").value("Not yours"));
+    }
+
+    @Test
+    void batchThatChangesNothingKeepsTheListingETag() throws Exception {
+        UserModel owner = user("batch-noop");
+        UserModel other = user("batch-noop-other");
+        createTask(owner, "Kept");
+        long foreign = createTask(other, "Foreign");
+        String etag = listing(owner, null).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        batch(owner, post("/api/tasks/batch/delete"), "[" + foreign + ",null]", "NOT_FOUND", "INVALID");
+        batch(owner, patch("/api/tasks/batch/toggle"), "[" + foreign + "]", "NOT_FOUND");
+        batch(owner, post("/api/tasks/batch"), "[{\"title\":\"\"}]", "INVALID");
+
+        listing(owner, etag).andExpect(status().isNotModified());
+    }
+
+    @Test
+    void sharingGrantsAndUnsharingRevokesAccessToTheTask() throws Exception {
+        UserModel owner = user("share-owner");
+        UserModel recipient = user("share-recipient");
+        long taskId = createTask(owner, "Shared plan");
+
+        // GET /api/tasks/{id} is owner-only; the share-dependent endpoint is edit-share
+        editShared(recipient, taskId, "Before share").andExpect(status().isNotFound());
+
+        share(owner, taskId, recipient, "VIEW").andExpect(status().isOk());
+        editShared(recipient, taskId, "With view").andExpect(status().isNotFound());
+
+        share(owner, taskId, recipient, "EDIT").andExpect(status().isOk());
+        editShared(recipient, taskId, "With edit")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.title").value("With edit"));
+        getTask(owner, taskId).andExpect(jsonPath("$.data.title").value("With edit"));
+        getTask(recipient, taskId).andExpect(status().isNotFound());
+
+        // No HTTP route removes a share; the service call is what one would make
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(
+            new AuthenticatedUser(owner.getId(), owner.getUsername()), null, List.of()));
+        taskService.removeShare(taskId, recipient.getUsername());
+        SecurityContextHolder.clearContext();
+
+        editShared(recipient, taskId, "After unshare").andExpect(status().isNotFound());
+        getTask(owner, taskId).andExpect(jsonPath("$.data.title").value("With edit"));
+    }
+
+    @Test
+    void unchangedTaskRevalidatesWith304() throws Exception {
+        UserModel owner = user("etag-task");
+        long taskId = createTask(owner, "Cached");
+
+        String etag = getTask(owner, taskId).andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+        mockMvc.perform(get("/api/tasks/{id}", taskId)
+                .header(HttpHeaders.AUTHORIZATION, bearer(owner))
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+
+        update(owner, taskId, "Changed", null).andExpect(status().isOk());
+        mockMvc.perform(get("/api/tasks/{id}", taskId)
+                .header(HttpHeaders.AUTHORIZATION, bearer(owner))
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.title").value("Changed"));
+    }
+
+    @Test
+    void listingTagChangesWhenSharingTouchesTheTaskRow() throws Exception {
+        UserModel owner = user("etag-list");
+        UserModel recipient = user("etag-list-recipient");
+        long taskId = createTask(owner, "Listed");
+
+        String etag = listing(owner, null).andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        listing(owner, etag).andExpect(status().isNotModified());
+
+        // The first share flips isShareable, which moves the task's updatedAt
+        share(owner, taskId, recipient, "VIEW").andExpect(status().isOk());
+        listing(owner, etag).andExpect(status().isOk());
+    }
+
+    @Test
+    void listingTagsDifferPerQuery() throws Exception {
+        UserModel owner = user("etag-variant");
+        createTask(owner, "Variant");
+
+        // Values that would run together if the parameters were simply concatenated
+        String commaTitle = search(owner, "title", "a, description=b").getResponse().getHeader(HttpHeaders.ETAG);
+        String both = search(owner, "title", "a", "description", "b").getResponse().getHeader(HttpHeaders.ETAG);
+        String descriptionOnly = search(owner, "description", "b").getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(Set.of(commaTitle, both, descriptionOnly)).hasSize(3);
+        assertThat(search(owner, "title", "a", "description", "b").getResponse().getHeader(HttpHeaders.ETAG)).isEqualTo(both);
+    }
+
+    @Test
+    void staleIfMatchIsRefusedWith412() throws Exception {
+        UserModel owner = user("if-match");
+        long taskId = createTask(owner, "Original");
+        String original = getTask(owner, taskId).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String updated = update(owner, taskId, "First writer", original)
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(updated).isNotEqualTo(original)
+            .isEqualTo(getTask(owner, taskId).andReturn().getResponse().getHeader(HttpHeaders.ETAG));
+
+        // A second writer still holding the original tag loses
+        update(owner, taskId, "Second writer", original).andExpect(status().isPreconditionFailed());
+        mockMvc.perform(patch("/api/tasks/{id}/toggle", taskId)
+                .header(HttpHeaders.AUTHORIZATION, bearer(owner))
+                .header(HttpHeaders.IF_MATCH, original))
+            .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/tasks/{id}", taskId)
+                .header(HttpHeaders.AUTHORIZATION, bearer(owner))
+                .header(HttpHeaders.IF_MATCH, original))
+            .andExpect(status().isPreconditionFailed());
+        getTask(owner, taskId)
+            .andExpect(jsonPath("$.data.title").value("First writer"))
+            .andExpect(jsonPath("$.data.completed").value(false));
+
+        mockMvc.perform(delete("/api/tasks/{id}", taskId)
+                .header(HttpHeaders.AUTHORIZATION, bearer(owner))
+                .header(HttpHeaders.IF_MATCH, updated))
+            .andExpect(status().isOk());
+        getTask(owner, taskId).andExpect(status().isNotFound());
+    }
+
+    private UserModel user(String prefix) {
+        UserModel user = new UserModel();
+        user.setUsername(prefix + "-" + System.nanoTime());
+        user.setEmail(user.getUsername() + "@example.com");
+        return userRepository.save(user);
+    }
+
+    private String bearer(UserModel user) {
+        return "Bearer " + jwtService.generateToken(user.getUsername(), user.getId());
+    }
+
+    private long createTask(UserModel owner, String title) throws Exception {
+        String body = mockMvc.perform(post("/api/tasks")
+                .header(HttpHeaders.AUTHORIZATION, bearer(owner))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"" + title + "\"}"))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(body, "$.data.id")).longValue();
+    }
+
+    private ResultActions getTask(UserModel user, long taskId) throws Exception {
+        return mockMvc.perform(get("/api/tasks/{id}", taskId).header(HttpHeaders.AUTHORIZATION, bearer(user)));
+    }
+
+    private ResultActions update(UserModel owner, long taskId, String title, String ifMatch) throws Exception {
+        var request = put("/api/tasks/{id}", taskId)
+            .header(HttpHeaders.AUTHORIZATION, bearer(owner))
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"title\":\"" + title + "\"}");
+        if (ifMatch != null) {
+            request.header(HttpHeaders.IF_MATCH, ifMatch);
+        }
+        return mockMvc.perform(request);
+    }
+
+    private ResultActions listing(UserModel owner, String ifNoneMatch) throws Exception {
+        var request = get("/api/tasks").header(HttpHeaders.AUTHORIZATION, bearer(owner));
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return mockMvc.perform(request);
+    }
+
+    private MvcResult search(UserModel owner, String... params) throws Exception {
+        var request = get("/api/tasks/search").header(HttpHeaders.AUTHORIZATION, bearer(owner));
+        for (int i = 0; i < params.length; i += 2) {
+            request.param(params[i], params[i + 1]);
+        }
+        return mockMvc.perform(request)
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn();
+    }
+
+    private ResultActions share(UserModel owner, long taskId, UserModel recipient, String permission) throws Exception {
+        return mockMvc.perform(post("/api/tasks/{id}/share", taskId)
+            .header(HttpHeaders.AUTHORIZATION, bearer(owner))
+            .param("username", recipient.getUsername())
+            .param("permission", permission));
+    }
+
+    private ResultActions editShared(UserModel user, long taskId, String title) throws Exception {
+        return mockMvc.perform(put("/api/tasks/{id}/edit-share", taskId)
+            .header(HttpHeaders.AUTHORIZATION, bearer(user))
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"title\":\"" + title + "\"}"));
+    }
+
+    private long serviceCalls(String method) {
+        Timer timer = meterRegistry.find("auth.tasks.service").tag("method", method).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private MvcResult batch(UserModel owner, MockHttpServletRequestBuilder request, String json, String... statuses)
+            throws Exception {
+        MvcResult result = mockMvc.perform(request
+                .header(HttpHeaders.AUTHORIZATION, bearer(owner))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+            .andExpect(status().isOk())
+            .andReturn();
+        List<String> actual = JsonPath.read(result.getResponse().getContentAsString(), "$.data.results[*].status");
+        assertThat(actual).containsExactly(statuses);
+        return result;
+    }
+
+    private static void assertCounts(MvcResult result, int succeeded, int failed) throws Exception {
+        String body = result.getResponse().getContentAsString();
+        assertThat((Integer) JsonPath.read(body, "$.data.succeeded")).isEqualTo(succeeded);
+        assertThat((Integer) JsonPath.read(body, "$.data.failed")).isEqualTo(failed);
+    }
+}
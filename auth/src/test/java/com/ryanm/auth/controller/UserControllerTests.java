@@ -0,0 +1,169 @@
+package com.ryanm.auth.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.jayway.jsonpath.JsonPath;
+import com.ryanm.auth.model.RefreshToken;
+import com.ryanm.auth.model.RefreshToken.Status;
+import com.ryanm.auth.model.UserModel;
+import com.ryanm.auth.repository.RefreshTokenRepository;
+import com.ryanm.auth.repository.UserRepository;
+import com.ryanm.auth.service.TokenRevocationList;
+import com.ryanm.auth.service.VerifiedToken;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private TokenRevocationList revocationList;
+
+    @Test
+    void loginRehashesPasswordStoredAtWeakerStrength() throws Exception {
+        // The test profile hashes at strength 5
+        UserModel user = new UserModel();
+        user.setUsername("rehash-user");
+        user.setEmail("rehash-user@example.com");
+        user.setPassword("{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret-pass"));
+        userRepository.save(user);
+
+        mockMvc.perform(post("/api/users/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(credentials("rehash-user", "secret-pass")))
+                .andExpect(status().isOk());
+
+        String stored = userRepository.findByUsername("rehash-user").orElseThrow().getPassword();
+        assertThat(stored).startsWith("{bcrypt}$2a$05$");
+        assertThat(new BCryptPasswordEncoder().matches("secret-pass", stored.substring("{bcrypt}".length()))).isTrue();
+    }
+
+    @Test
+    void refreshTokenIsNotAcceptedAsBearer() throws Exception {
+        String refreshToken = signup("bearer-refresh").refreshToken();
+
+        profile(refreshToken).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void refreshTokenRotatesOncePerUse() throws Exception {
+        Tokens first = signup("rotate-user");
+
+        Tokens second = refresh(first.refreshToken());
+        Tokens third = refresh(second.refreshToken());
+
+        assertThat(second.refreshToken()).isNotEqualTo(first.refreshToken());
+        assertThat(third.refreshToken()).isNotEqualTo(second.refreshToken());
+        profile(third.accessToken())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.username").value("rotate-user"));
+    }
+
+    @Test
+    void reusingARotatedRefreshTokenRevokesTheWholeFamily() throws Exception {
+        Tokens first = signup("reuse-user");
+        Tokens second = refresh(first.refreshToken());
+
+        // The stolen copy of the first token is replayed after the owner already exchanged it
+        refreshRequest(first.refreshToken())
+            .andExpect(status().isUnauthorized())
+            .andExpect(jsonPath("$.message").value(
+                "Token refresh failed: Refresh token already used; the session has been revoked"));
+
+        // The owner's current token belongs to the same family and stops working too
+        refreshRequest(second.refreshToken()).andExpect(status().isUnauthorized());
+        Long userId = userRepository.findByUsername("reuse-user").orElseThrow().getId();
+        List<RefreshToken> family = refreshTokenRepository.findAll().stream()
+            .filter(token -> token.getUserId().equals(userId))
+            .toList();
+        assertThat(family).hasSize(2).noneMatch(token -> token.getStatus() == Status.ACTIVE);
+    }
+
+    @Test
+    void logoutRevokesOnlyThatSession() throws Exception {
+        Tokens alice = signup("logout-alice");
+        Tokens bob = signup("logout-bob");
+        // Fill the (test-sized) Bloom filter so Bob's token is a filter hit the exact entries must clear
+        for (long jti = 1; jti <= 200; jti++) {
+            revocationList.revoke(new VerifiedToken(-jti, "nobody", null, null,
+                Instant.now(), Instant.now().plusSeconds(60), null));
+        }
+
+        mockMvc.perform(post("/api/users/logout")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + alice.accessToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + alice.refreshToken() + "\"}"))
+                .andExpect(status().isOk());
+
+        profile(alice.accessToken()).andExpect(status().isUnauthorized());
+        refreshRequest(alice.refreshToken()).andExpect(status().isUnauthorized());
+        profile(alice.refreshToken()).andExpect(status().isUnauthorized());
+        profile(bob.accessToken())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.username").value("logout-bob"));
+    }
+
+    private Tokens signup(String username) throws Exception {
+        String body = mockMvc.perform(post("/api/users/signup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"email\":\"" + username
+                            + "@example.com\",\"password\":\"secret-pass\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return Tokens.of(body);
+    }
+
+    private Tokens refresh(String refreshToken) throws Exception {
+        return Tokens.of(refreshRequest(refreshToken)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private ResultActions refreshRequest(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/api/users/refresh-token")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"" + refreshToken + "\"}"));
+    }
+
+    private ResultActions profile(String bearer) throws Exception {
+        return mockMvc.perform(get("/api/users/profile").header(HttpHeaders.AUTHORIZATION, "Bearer " + bearer));
+    }
+
+    private record Tokens(String accessToken, String refreshToken) {
+
+        static Tokens of(String body) {
+            return new Tokens(JsonPath.read(body, "$.data.accessToken"), JsonPath.read(body, "$.data.refreshToken"));
+        }
+    }
+
+    static String credentials(String username, String password) {
+        return "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}";
+    }
+}
@@ -0,0 +1,45 @@
+package com.ryanm.auth.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+
+import javax.crypto.SecretKey;
+
+import org.junit.jupiter.api.Test;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+class JwtServiceTests {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private final JwtService jwtService = new JwtService(SECRET, 60_000, 100, Duration.ofMinutes(5));
+
+    @Test
+    void verifiesIssuedAccessToken() {
+        VerifiedToken token = jwtService.verify(jwtService.generateToken("alice", 7L));
+
+        assertThat(token.subject()).isEqualTo("alice");
+        assertThat(token.userId()).isEqualTo(7L);
+        assertThat(token.isRefreshToken()).isFalse();
+        assertThat(token.isValidFor("alice")).isTrue();
+    }
+
+    @Test
+    void rejectsSignedTokenWithoutExpiration() {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        String token = Jwts.builder()
+                .subject("alice")
+                .claim("userId", 7L)
+                .signWith(key)
+                .compact();
+
+        assertThatThrownBy(() -> jwtService.verify(token))
+                .isInstanceOf(JwtException.class)
+                .hasMessageContaining("no expiration");
+    }
+}
@@ -0,0 +1,56 @@
+package com.ryanm.auth.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.domain.Sort;
+
+import com.ryanm.auth.dto.tasks.TaskResponse;
+import com.ryanm.auth.model.Task.Priority;
+
+class TaskCursorTests {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2026, 3, 14, 15, 9, 26, 535_000_000);
+    private static final LocalDateTime UPDATED = LocalDateTime.of(2026, 3, 15, 8, 0);
+
+    private final TaskResponse task = new TaskResponse(
+            42L, "quarterly | report", "desc", false, Priority.HIGH, null, CREATED, UPDATED);
+
+    @ParameterizedTest
+    @ValueSource(strings = {"createdAt", "updatedAt", "title", "id"})
+    void roundTripsEverySortKey(String sortBy) {
+        TaskCursor cursor = TaskCursor.after(task, sortBy, Sort.Direction.DESC);
+
+        TaskCursor decoded = TaskCursor.decode(cursor.encode());
+
+        assertThat(decoded).isEqualTo(cursor);
+        assertThat(decoded.id()).isEqualTo(42L);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "not base64!",
+            "",
+            // Base64url of cursors edited by hand
+            "dueDate|ASC|42|2026-03-14T15:09:26",
+            "createdAt|SIDEWAYS|42|2026-03-14T15:09:26",
+            "createdAt|ASC|forty-two|2026-03-14T15:09:26",
+            "createdAt|ASC|42|yesterday",
+            "id|ASC|42|42x",
+            "createdAt|ASC|42"})
+    void rejectsTamperedCursors(String raw) {
+        String token = raw.contains("|")
+                ? Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8))
+                : raw;
+
+        assertThatThrownBy(() -> TaskCursor.decode(token))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Invalid cursor");
+    }
+}
@@ -0,0 +1,232 @@
+package com.ryanm.auth.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ryanm.auth.model.TaskShare.SharePermission;
+import com.ryanm.auth.repository.TaskShareRepository;
+
+class TaskPermissionIndexTests {
+
+    // A stripe's table starts with 16 slots and doubles past half full
+    private static final int INITIAL_MASK = 15;
+
+    private TaskPermissionIndex index;
+
+    @BeforeEach
+    void createIndex() {
+        index = new TaskPermissionIndex(mock(TaskShareRepository.class));
+        index.rebuild();
+    }
+
+    @Test
+    void putReplacesAndRemoveRevokesOneUser() {
+        index.put(10, 1, SharePermission.VIEW);
+        index.put(10, 2, SharePermission.EDIT);
+        assertThat(index.permission(10, 1)).isEqualTo(SharePermission.VIEW);
+        assertThat(index.permission(10, 2)).isEqualTo(SharePermission.EDIT);
+        assertThat(index.permission(10, 3)).isNull();
+        assertThat(index.permission(11, 1)).isNull();
+
+        index.put(10, 1, SharePermission.MANAGE);
+        assertThat(index.permission(10, 1)).isEqualTo(SharePermission.MANAGE);
+
+        index.remove(10, 1);
+        assertThat(index.permission(10, 1)).isNull();
+        assertThat(index.permission(10, 2)).isEqualTo(SharePermission.EDIT);
+
+        // Removing the last grant frees the slot; sharing again must find a clean one
+        index.remove(10, 2);
+        index.remove(10, 2);
+        assertThat(index.permission(10, 2)).isNull();
+        index.put(10, 2, SharePermission.VIEW);
+        assertThat(index.permission(10, 2)).isEqualTo(SharePermission.VIEW);
+        assertThat(index.permission(10, 1)).isNull();
+    }
+
+    @Test
+    void removeTaskDropsEveryGrant() {
+        index.put(20, 1, SharePermission.VIEW);
+        index.put(20, 2, SharePermission.MANAGE);
+        index.put(21, 1, SharePermission.EDIT);
+
+        index.removeTask(20);
+        index.removeTask(99);
+
+        assertThat(index.permission(20, 1)).isNull();
+        assertThat(index.permission(20, 2)).isNull();
+        assertThat(index.permission(21, 1)).isEqualTo(SharePermission.EDIT);
+    }
+
+    @Test
+    void deletesKeepProbeChainsThatWrapPastTheTableEnd() {
+        // Ids of one stripe whose home slots sit at the end and start of the table
+        int stripe = stripeOf(idWithHome(INITIAL_MASK, -1, 1));
+        long a = idWithHome(INITIAL_MASK - 1, stripe, 1);
+        long b1 = idWithHome(INITIAL_MASK, stripe, 1);
+        long b2 = idWithHome(INITIAL_MASK, stripe, b1 + 1);
+        long b3 = idWithHome(INITIAL_MASK, stripe, b2 + 1);
+        long c = idWithHome(0, stripe, 1);
+        // a -> 14, b1 -> 15, b2 -> 0, b3 -> 1, c -> 2: the chain crosses the end of the table
+        for (long taskId : new long[] {a, b1, b2, b3, c}) {
+            index.put(taskId, taskId + 1, SharePermission.EDIT);
+        }
+
+        // Backward shift moves b2, b3 and c back across the end
+        index.removeTask(b1);
+        assertThat(index.permission(b1, b1 + 1)).isNull();
+        for (long taskId : new long[] {a, b2, b3, c}) {
+            assertThat(index.permission(taskId, taskId + 1)).as("task %d", taskId).isEqualTo(SharePermission.EDIT);
+        }
+
+        index.remove(a, a + 1);
+        index.removeTask(b3);
+        assertThat(index.permission(b2, b2 + 1)).isEqualTo(SharePermission.EDIT);
+        assertThat(index.permission(c, c + 1)).isEqualTo(SharePermission.EDIT);
+
+        index.put(b1, b1 + 1, SharePermission.VIEW);
+        index.put(b3, b3 + 1, SharePermission.MANAGE);
+        assertThat(index.permission(b1, b1 + 1)).isEqualTo(SharePermission.VIEW);
+        assertThat(index.permission(b2, b2 + 1)).isEqualTo(SharePermission.EDIT);
+        assertThat(index.permission(b3, b3 + 1)).isEqualTo(SharePermission.MANAGE);
+        assertThat(index.permission(c, c + 1)).isEqualTo(SharePermission.EDIT);
+        assertThat(index.permission(a, a + 1)).isNull();
+    }
+
+    @Test
+    void resizesWithoutLosingGrants() {
+        // Far past 16 slots per stripe, so every stripe resizes several times
+        for (long taskId = 1; taskId <= 20_000; taskId++) {
+            index.put(taskId, taskId, permissionFor(taskId));
+            index.put(taskId, taskId + 1_000_000, SharePermission.VIEW);
+        }
+        for (long taskId = 1; taskId <= 20_000; taskId += 2) {
+            index.removeTask(taskId);
+        }
+
+        for (long taskId = 1; taskId <= 20_000; taskId++) {
+            boolean kept = taskId % 2 == 0;
+            assertThat(index.permission(taskId, taskId)).isEqualTo(kept ? permissionFor(taskId) : null);
+            assertThat(index.permission(taskId, taskId + 1_000_000)).isEqualTo(kept ? SharePermission.VIEW : null);
+        }
+    }
+
+    @Test
+    void readersNeverMissStableGrantsWhileWritersChurn() throws Exception {
+        int stableTasks = 5_000;
+        // Odd ids never change; writers churn the even ids in the same stripes, forcing resizes and shifts
+        for (long taskId = 1; taskId < 2L * stableTasks; taskId += 2) {
+            index.put(taskId, 7, permissionFor(taskId));
+        }
+
+        int writers = 4;
+        int readers = 4;
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicLong reads = new AtomicLong();
+        List<Map<Long, SharePermission>> finalStates = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(writers + readers);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            Map<Long, SharePermission> state = new HashMap<>();
+            finalStates.add(state);
+            threads.add(new Thread(() -> {
+                try {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (running.get()) {
+                        // Each writer owns the even ids congruent to its number, so its final state is known
+                        long taskId = 2L * (random.nextInt(10_000) * writers + writer) + 2;
+                        switch (random.nextInt(3)) {
+                            case 0 -> {
+                                SharePermission permission = permissionFor(random.nextLong(3));
+                                index.put(taskId, 7, permission);
+                                state.put(taskId, permission);
+                            }
+                            case 1 -> {
+                                index.remove(taskId, 7);
+                                state.remove(taskId);
+                            }
+                            default -> {
+                                index.removeTask(taskId);
+                                state.remove(taskId);
+                            }
+                        }
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    done.countDown();
+                }
+            }, "permission-writer-" + w));
+        }
+        for (int r = 0; r < readers; r++) {
+            threads.add(new Thread(() -> {
+                try {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (running.get()) {
+                        long stable = 2L * random.nextInt(stableTasks) + 1;
+                        SharePermission seen = index.permission(stable, 7);
+                        if (seen != permissionFor(stable)) {
+                            throw new AssertionError("task " + stable + " read as " + seen);
+                        }
+                        // Churned ids may hold anything, but a lookup must still return
+                        index.permission(2L * random.nextInt(40_000) + 2, 7);
+                        reads.incrementAndGet();
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    done.countDown();
+                }
+            }, "permission-reader-" + r));
+        }
+
+        threads.forEach(Thread::start);
+        Thread.sleep(1_500);
+        running.set(false);
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(failure.get()).isNull();
+        assertThat(reads.get()).isPositive();
+        for (Map<Long, SharePermission> state : finalStates) {
+            state.forEach((taskId, permission) -> assertThat(index.permission(taskId, 7)).isEqualTo(permission));
+        }
+        for (long taskId = 1; taskId < 2L * stableTasks; taskId += 2) {
+            assertThat(index.permission(taskId, 7)).isEqualTo(permissionFor(taskId));
+        }
+    }
+
+    private static SharePermission permissionFor(long taskId) {
+        return SharePermission.values()[(int) (taskId % 3)];
+    }
+
+    private static int stripeOf(long taskId) {
+        return (int) (TaskPermissionIndex.hash(taskId) >>> (64 - TaskPermissionIndex.STRIPE_BITS));
+    }
+
+    // First id from 'from' whose home slot in a fresh stripe table is 'home', in 'stripe' unless that is -1
+    private static long idWithHome(int home, int stripe, long from) {
+        for (long taskId = from; ; taskId++) {
+            if (((int) TaskPermissionIndex.hash(taskId) & INITIAL_MASK) == home
+                    && (stripe < 0 || stripeOf(taskId) == stripe)) {
+                return taskId;
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.ryanm.auth.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.ryanm.auth.dto.tasks.TaskResponse;
+import com.ryanm.auth.model.Task;
+import com.ryanm.auth.model.UserModel;
+import com.ryanm.auth.repository.TaskFilter;
+import com.ryanm.auth.repository.TaskRepository;
+import com.ryanm.auth.repository.UserRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TaskSearchIndexTests {
+
+    private static final String[] WORDS = {
+        "budget", "report", "roadmap", "review", "Quarterly", "plan", "deploy", "budgets", "port", "udge", "Éclair"};
+    private static final String[] QUERIES = {
+        "budget", "budgets", "BUDGET", "report", "port", "epo", "get rep", "quarterly plan", "roadmap",
+        "éclair", "t\nr", "udg", "xyz", "budget report review"};
+
+    @Autowired
+    private TaskSearchIndex searchIndex;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Random random = new Random(42);
+    private UserModel user;
+
+    @BeforeEach
+    void createUser() {
+        user = new UserModel();
+        user.setUsername("search-" + System.nanoTime());
+        user.setEmail(user.getUsername() + "@example.com");
+        user = userRepository.save(user);
+    }
+
+    @Test
+    void candidatesReCheckedBySqlMatchTheSqlFallback() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            tasks.add(save(new Task()));
+        }
+        assertMatchesSql();
+
+        // Updates and deletes leave stale postings behind until enough of them trigger a compaction
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 60; i++) {
+                save(tasks.get(random.nextInt(tasks.size())));
+            }
+            for (int i = 0; i < 10; i++) {
+                Task removed = tasks.remove(random.nextInt(tasks.size()));
+                taskRepository.delete(removed);
+                searchIndex.remove(user.getId(), removed.getId());
+            }
+            assertMatchesSql();
+        }
+    }
+
+    @Test
+    void shortAndBroadQueriesFallBackToSql() {
+        for (int i = 0; i < 5; i++) {
+            save(new Task());
+        }
+
+        assertThat(searchIndex.search(user.getId(), "bu")).isNull();
+        assertThat(searchIndex.search(-1L, "budget")).isEmpty();
+    }
+
+    @Test
+    void intersectsSortedPostings() {
+        long[] small = {3, 9, 200};
+        long[] large = new long[1000];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = i * 3L;
+        }
+
+        assertThat(TaskSearchIndex.intersect(small, 3, large, 1000)).containsExactly(3, 9);
+        assertThat(TaskSearchIndex.intersect(new long[] {1, 2, 4, 8}, 4, new long[] {2, 3, 4, 5}, 4)).containsExactly(2, 4);
+        assertThat(TaskSearchIndex.intersect(new long[0], 0, large, 1000)).isEmpty();
+    }
+
+    @Test
+    void postingKeepsIdsSortedAndDistinct() {
+        TaskSearchIndex.Posting posting = new TaskSearchIndex.Posting();
+        for (long id : new long[] {5, 1, 9, 5, 3, 9, 7}) {
+            posting.add(id);
+        }
+        posting.remove(3);
+        posting.remove(4);
+
+        assertThat(java.util.Arrays.copyOf(posting.ids, posting.size)).containsExactly(1, 5, 7, 9);
+        assertThat(posting.contains(7)).isTrue();
+        assertThat(posting.contains(3)).isFalse();
+    }
+
+    private Task save(Task task) {
+        task.setTitle(phrase(1 + random.nextInt(4)));
+        task.setDescription(random.nextInt(4) == 0 ? null : phrase(random.nextInt(8)));
+        task.setUser(user);
+        Task saved = taskRepository.save(task);
+        searchIndex.index(saved);
+        return saved;
+    }
+
+    private String phrase(int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            text.append(i == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private void assertMatchesSql() {
+        for (String query : QUERIES) {
+            Set<Long> expected = ids(new TaskFilter(user.getId(), null, null, null, null, null, null, query, null));
+            Set<Long> candidates = searchIndex.search(user.getId(), query);
+            assertThat(candidates).as("candidates for '%s'", query).isNotNull().containsAll(expected);
+            assertThat(ids(new TaskFilter(user.getId(), null, null, null, null, null, null, query, candidates)))
+                .as("matches for '%s'", query)
+                .isEqualTo(expected);
+        }
+    }
+
+    private Set<Long> ids(TaskFilter filter) {
+        if (filter.ids() != null && filter.ids().isEmpty()) {
+            return Set.of();
+        }
+        return taskRepository.findTaskResponses(filter, PageRequest.of(0, 1000, Sort.by("id"))).getContent().stream()
+            .map(TaskResponse::getId)
+            .collect(Collectors.toSet());
+    }
+}
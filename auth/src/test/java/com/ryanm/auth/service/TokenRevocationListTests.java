@@ -0,0 +1,80 @@
+package com.ryanm.auth.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+class TokenRevocationListTests {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private final JwtService jwtService = new JwtService(SECRET, 60_000, 100, Duration.ofMinutes(5));
+
+    // 64 bits probed 16 times per entry: after the saturate() below every bit is set and every lookup is a filter hit
+    private final TokenRevocationList revocationList = new TokenRevocationList(60_000, 1, 0.5);
+
+    @Test
+    void revokedTokenIsRejectedUntilItsExpiry() {
+        VerifiedToken live = token(42L, 7L, Instant.now().plusSeconds(60));
+        VerifiedToken expired = token(43L, 7L, Instant.now().minusSeconds(1));
+
+        revocationList.revoke(live);
+        revocationList.revoke(expired);
+
+        assertThat(revocationList.isRevoked(live)).isTrue();
+        assertThat(revocationList.isRevoked(expired)).as("an entry past its exp no longer matches").isFalse();
+    }
+
+    @Test
+    void filterFalsePositivesAreSettledByTheExactEntries() {
+        revocationList.revoke(token(42L, 7L, Instant.now().plusSeconds(60)));
+        saturate();
+
+        for (long jti = 1_000; jti < 2_000; jti++) {
+            assertThat(revocationList.isRevoked(token(jti, jti, Instant.now().plusSeconds(60)))).isFalse();
+        }
+        assertThat(revocationList.isRevoked(token(42L, 7L, Instant.now().plusSeconds(60)))).isTrue();
+    }
+
+    @Test
+    void userCutoffRevokesOnlyTokensIssuedBeforeIt() throws InterruptedException {
+        VerifiedToken before = jwtService.verify(jwtService.generateToken("alice", 7L));
+        VerifiedToken otherUser = jwtService.verify(jwtService.generateToken("bob", 8L));
+        saturate();
+
+        revocationList.revokeUser(7L);
+        // Access-token jtis carry their issue time in millis
+        Thread.sleep(5);
+        VerifiedToken after = jwtService.verify(jwtService.generateToken("alice", 7L));
+
+        assertThat(revocationList.isRevoked(before)).isTrue();
+        assertThat(revocationList.isRevoked(after)).isFalse();
+        assertThat(revocationList.isRevoked(otherUser)).isFalse();
+    }
+
+    @Test
+    void purgeKeepsLiveEntries() {
+        VerifiedToken live = token(42L, 7L, Instant.now().plusSeconds(60));
+        revocationList.revoke(live);
+        saturate();
+
+        revocationList.purgeExpired();
+
+        assertThat(revocationList.isRevoked(live)).isTrue();
+        assertThat(revocationList.isRevoked(token(43L, 8L, Instant.now().plusSeconds(60)))).isFalse();
+    }
+
+    // Revocations of tokens already past their exp: they set filter bits but no exact entry can match them
+    private void saturate() {
+        for (long jti = 1_000_000; jti < 1_000_200; jti++) {
+            revocationList.revoke(token(jti, null, Instant.now().minusSeconds(1)));
+        }
+    }
+
+    private static VerifiedToken token(Long jti, Long userId, Instant expiration) {
+        return new VerifiedToken(jti, "user", userId, null, Instant.now(), expiration, null);
+    }
+}
@@ -0,0 +1,84 @@
+package com.ryanm.auth.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ryanm.auth.dto.ApiResponse;
+import com.ryanm.auth.dto.UserResponseData;
+import com.ryanm.auth.dto.tasks.TaskPageResponse;
+import com.ryanm.auth.dto.tasks.TaskResponse;
+import com.ryanm.auth.model.Task;
+
+/**
+ * JSON serialization of the response envelopes with an ObjectMapper configured
+ * the way Spring MVC configures it (JavaTimeModule, ISO dates).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g", "-XX:+UseG1GC"})
+@State(Scope.Benchmark)
+public class ApiResponseSerializationBenchmark {
+
+    private ObjectWriter writer;
+    private ApiResponse<TaskResponse> singleTask;
+    private ApiResponse<List<TaskResponse>> taskList;
+    private ApiResponse<TaskPageResponse> taskPage;
+    private ApiResponse<UserResponseData> login;
+
+    @Setup
+    public void setUp() {
+        writer = Jackson2ObjectMapperBuilder.json().build().writer();
+
+        List<TaskResponse> tasks = BenchmarkFixtures.tasks(50).stream()
+                .map(ApiResponseSerializationBenchmark::toResponse)
+                .toList();
+        singleTask = ApiResponse.success("Task retrieved successfully", tasks.get(0));
+        taskList = ApiResponse.success("Tasks retrieved successfully", tasks);
+        taskPage = ApiResponse.success("Tasks retrieved successfully",
+                new TaskPageResponse(tasks.subList(0, 10), 0, 10, tasks.size(), 5));
+        login = ApiResponse.success("Login successful", new UserResponseData(
+                BenchmarkFixtures.USER_ID, BenchmarkFixtures.USERNAME, "bench-user@example.com",
+                "eyJhbGciOiJIUzUxMiJ9.access.signature", "eyJhbGciOiJIUzUxMiJ9.refresh.signature"));
+    }
+
+    @Benchmark
+    public byte[] singleTask() throws JsonProcessingException {
+        return writer.writeValueAsBytes(singleTask);
+    }
+
+    @Benchmark
+    public byte[] taskList50() throws JsonProcessingException {
+        return writer.writeValueAsBytes(taskList);
+    }
+
+    @Benchmark
+    public byte[] taskPage10() throws JsonProcessingException {
+        return writer.writeValueAsBytes(taskPage);
+    }
+
+    @Benchmark
+    public byte[] loginResponse() throws JsonProcessingException {
+        return writer.writeValueAsBytes(login);
+    }
+
+    private static TaskResponse toResponse(Task task) {
+        return new TaskResponse(task.getId(), task.getTitle(), task.getDescription(), task.getCompleted(),
+                task.getPriority(), task.getDueDate(), task.getCreatedAt(), task.getUpdatedAt());
+    }
+}
@@ -0,0 +1,57 @@
+package com.ryanm.auth.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.ryanm.auth.model.Task;
+import com.ryanm.auth.model.Task.Priority;
+import com.ryanm.auth.model.UserModel;
+
+/**
+ * Deterministic inputs shared by the benchmarks: a fixed secret, a fixed clock
+ * origin and a seeded generator, so every run measures identical data.
+ */
+public final class BenchmarkFixtures {
+
+    public static final String JWT_SECRET =
+            "benchmark-secret-benchmark-secret-benchmark-secret-benchmark-secret-0123456789";
+    public static final String USERNAME = "bench-user";
+    public static final Long USER_ID = 42L;
+
+    private static final LocalDateTime ORIGIN = LocalDateTime.of(2024, 1, 1, 9, 0);
+    private static final long SEED = 0x5EEDL;
+
+    private BenchmarkFixtures() {
+    }
+
+    public static UserModel user() {
+        UserModel user = new UserModel();
+        user.setId(USER_ID);
+        user.setUsername(USERNAME);
+        user.setEmail(USERNAME + "@example.com");
+        return user;
+    }
+
+    public static List<Task> tasks(int count) {
+        Random random = new Random(SEED);
+        Priority[] priorities = Priority.values();
+        UserModel owner = user();
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Task task = new Task();
+            task.setId((long) i + 1);
+            task.setTitle("Task " + i + " " + Long.toHexString(random.nextLong()));
+            task.setDescription("Description for task " + i + " with some realistic length " + random.nextInt(10_000));
+            task.setCompleted(random.nextBoolean());
+            task.setPriority(priorities[random.nextInt(priorities.length)]);
+            task.setDueDate(ORIGIN.plusDays(random.nextInt(90)));
+            task.setCreatedAt(ORIGIN.plusMinutes(i));
+            task.setUpdatedAt(ORIGIN.plusMinutes(i + random.nextInt(600)));
+            task.setUser(owner);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+}
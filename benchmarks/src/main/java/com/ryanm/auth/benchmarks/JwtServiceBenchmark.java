@@ -0,0 +1,71 @@
+package com.ryanm.auth.benchmarks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ryanm.auth.service.JwtService;
+
+/**
+ * Token issuing and verification. {@code validateTokenCached} is the steady
+ * state of a client reusing its token; {@code validateTokenUncached} runs with
+ * the verified-token cache disabled, so it is the cost of a first-seen token.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g", "-XX:+UseG1GC"})
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private JwtService uncachedJwtService;
+    private String accessToken;
+    private String refreshToken;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(BenchmarkFixtures.JWT_SECRET, 86_400_000L, 10_000, Duration.ofMinutes(5));
+        uncachedJwtService = new JwtService(BenchmarkFixtures.JWT_SECRET, 86_400_000L, 0, Duration.ofMinutes(5));
+        accessToken = jwtService.generateToken(BenchmarkFixtures.USERNAME, BenchmarkFixtures.USER_ID);
+        refreshToken = generateRefreshToken();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(BenchmarkFixtures.USERNAME, BenchmarkFixtures.USER_ID);
+    }
+
+    @Benchmark
+    public String generateRefreshToken() {
+        return jwtService.generateRefreshToken(BenchmarkFixtures.USERNAME, BenchmarkFixtures.USER_ID,
+                1L, 1L, Instant.now().plus(Duration.ofDays(7)));
+    }
+
+    @Benchmark
+    public Boolean validateTokenCached() {
+        return jwtService.validateToken(accessToken, BenchmarkFixtures.USERNAME);
+    }
+
+    @Benchmark
+    public Boolean validateTokenUncached() {
+        return uncachedJwtService.validateToken(accessToken, BenchmarkFixtures.USERNAME);
+    }
+
+    @Benchmark
+    public Boolean verifyRefreshToken() {
+        return jwtService.isRefreshToken(refreshToken);
+    }
+}
@@ -0,0 +1,121 @@
+package com.ryanm.auth.benchmarks.query;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Bulk-loads synthetic users, tasks and shares with plain JDBC batches. User 1
+ * is the "heavy" account that owns {@code heavyUserTasks} tasks. Every other
+ * user owns {@code tasksPerUser}. Data is derived from a fixed seed, so two runs
+ * with the same options produce the same database.
+ */
+final class DatasetSeeder {
+
+    static final String[] WORDS = {
+        "report", "invoice", "meeting", "design", "review", "deploy", "budget",
+        "research", "email", "backup", "hiring", "roadmap", "security", "billing", "launch"
+    };
+    private static final String[] PRIORITIES = {"LOW", "MEDIUM", "HIGH"};
+    private static final String[] PERMISSIONS = {"VIEW", "EDIT", "MANAGE"};
+    private static final int BATCH = 5_000;
+
+    static final LocalDateTime ORIGIN = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private final JdbcTemplate jdbc;
+    private final Random random;
+
+    DatasetSeeder(JdbcTemplate jdbc, long seed) {
+        this.jdbc = jdbc;
+        this.random = new Random(seed);
+    }
+
+    long seed(int users, int heavyUserTasks, int tasksPerUser, int sharesPerUser) {
+        List<Object[]> userRows = new ArrayList<>(users);
+        for (long id = 1; id <= users; id++) {
+            userRows.add(new Object[] {id, "user" + id + "@example.com", "{noop}x", "user" + id});
+        }
+        insert("INSERT INTO user_model (id, email, password, username) VALUES (?, ?, ?, ?)", userRows);
+
+        long taskId = 0;
+        List<Object[]> taskRows = new ArrayList<>(BATCH);
+        for (long userId = 1; userId <= users; userId++) {
+            int count = userId == 1 ? heavyUserTasks : tasksPerUser;
+            for (int i = 0; i < count; i++) {
+                taskRows.add(taskRow(++taskId, userId, i));
+                if (taskRows.size() == BATCH) {
+                    insert(TASK_INSERT, taskRows);
+                    taskRows.clear();
+                }
+            }
+        }
+        insert(TASK_INSERT, taskRows);
+        // Explicit ids bypass tasks_seq; move it past them (pooled blocks end at the value handed out)
+        jdbc.execute("ALTER SEQUENCE tasks_seq RESTART WITH " + (taskId + 50));
+
+        // Shares point at random tasks owned by someone else, so shared listings span many owners
+        List<Object[]> shareRows = new ArrayList<>(BATCH);
+        long shareId = 0;
+        for (long userId = 1; userId <= users && taskId > 0; userId++) {
+            // (task_id, shared_with) is unique, so each user gets distinct tasks
+            Set<Long> sharedTasks = new HashSet<>();
+            for (int i = 0; i < sharesPerUser && i < taskId; i++) {
+                long sharedTask;
+                do {
+                    sharedTask = 1 + (long) (random.nextDouble() * taskId);
+                } while (!sharedTasks.add(sharedTask));
+                shareRows.add(new Object[] {
+                    ++shareId, PERMISSIONS[random.nextInt(PERMISSIONS.length)],
+                    Timestamp.valueOf(ORIGIN.plusMinutes(i)), userId, sharedTask
+                });
+                if (shareRows.size() == BATCH) {
+                    insert(SHARE_INSERT, shareRows);
+        jdbc.execute("ALTER SEQUENCE task_shares_seq RESTART WITH " + (shareId + 50));
+                    shareRows.clear();
+                }
+            }
+        }
+        insert(SHARE_INSERT, shareRows);
+        jdbc.execute("ALTER SEQUENCE task_shares_seq RESTART WITH " + (shareId + 50));
+
+        jdbc.execute("ANALYZE");
+        return taskId;
+    }
+
+    private static final String TASK_INSERT =
+            "INSERT INTO tasks (id, completed, created_at, description, due_date, priority, title, updated_at, user_id, is_shareable) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SHARE_INSERT =
+            "INSERT INTO task_shares (id, permission, shared_at, shared_with, task_id) VALUES (?, ?, ?, ?, ?)";
+
+    private Object[] taskRow(long id, long userId, int index) {
+        String word = WORDS[random.nextInt(WORDS.length)];
+        String other = WORDS[random.nextInt(WORDS.length)];
+        LocalDateTime created = ORIGIN.plusMinutes(index * 7L + random.nextInt(7));
+        LocalDateTime due = random.nextInt(4) == 0 ? null : created.plusDays(random.nextInt(120));
+        return new Object[] {
+            id,
+            random.nextInt(3) == 0,
+            Timestamp.valueOf(created),
+            "Follow up on the " + other + " items for " + word + " #" + index,
+            due == null ? null : Timestamp.valueOf(due),
+            PRIORITIES[random.nextInt(PRIORITIES.length)],
+            Character.toUpperCase(word.charAt(0)) + word.substring(1) + " " + other + " " + index,
+            Timestamp.valueOf(created.plusHours(random.nextInt(48))),
+            userId,
+            false
+        };
+    }
+
+    private void insert(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbc.batchUpdate(sql, rows);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.ryanm.auth.benchmarks.query;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate statement inspector that records the SQL issued while a capture is
+ * open, so the harness can EXPLAIN exactly what each repository call runs.
+ */
+public class SqlCapture implements StatementInspector {
+
+    private static final ThreadLocal<Set<String>> CAPTURED = new ThreadLocal<>();
+
+    public static void start() {
+        CAPTURED.set(new LinkedHashSet<>());
+    }
+
+    public static Set<String> stop() {
+        Set<String> statements = CAPTURED.get();
+        CAPTURED.remove();
+        return statements == null ? Set.of() : statements;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Set<String> statements = CAPTURED.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+}
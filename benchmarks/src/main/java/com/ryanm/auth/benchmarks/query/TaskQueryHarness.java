@@ -0,0 +1,290 @@
+package com.ryanm.auth.benchmarks.query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.ryanm.auth.AuthApplication;
+import com.ryanm.auth.dto.tasks.TaskFilterRequest;
+import com.ryanm.auth.model.Task.Priority;
+import com.ryanm.auth.model.UserModel;
+import com.ryanm.auth.repository.TaskFilter;
+import com.ryanm.auth.repository.TaskRepository;
+import com.ryanm.auth.repository.TaskShareRepository;
+import com.ryanm.auth.repository.UserRepository;
+import com.ryanm.auth.service.AuthenticatedUser;
+import com.ryanm.auth.service.TaskSearchIndex;
+import com.ryanm.auth.service.TaskService;
+
+/**
+ * Seeds an in-memory H2 database with a configurable synthetic dataset, then
+ * times every repository query method and the /api/tasks/search filter
+ * combinations (through TaskService). For each case it prints latency
+ * percentiles and the H2 plan of every SQL statement the case issued.
+ *
+ * <pre>
+ * mvn -pl benchmarks exec:exec -Dbench.main=com.ryanm.auth.benchmarks.query.TaskQueryHarness \
+ *     -Dbench.args="--users=1000 --heavy-user-tasks=100000 --tasks-per-user=50 --shares-per-user=20 --iterations=200"
+ * </pre>
+ * All queries run as user 1, the heavy account.
+ */
+public final class TaskQueryHarness {
+
+    private static final Map<String, String> DEFAULTS = Map.of(
+            "users", "1000",
+            "heavy-user-tasks", "100000",
+            "tasks-per-user", "50",
+            "shares-per-user", "20",
+            "iterations", "200",
+            "warmup", "50",
+            "seed", "42",
+            "plans", "true");
+
+    private final TaskRepository tasks;
+    private final TaskShareRepository shares;
+    private final UserRepository users;
+    private final TaskService taskService;
+    private final TaskSearchIndex searchIndex;
+    private final JdbcTemplate jdbc;
+    private final int iterations;
+    private final int warmup;
+
+    private TaskQueryHarness(ConfigurableApplicationContext context, int iterations, int warmup) {
+        this.tasks = context.getBean(TaskRepository.class);
+        this.shares = context.getBean(TaskShareRepository.class);
+        this.users = context.getBean(UserRepository.class);
+        this.taskService = context.getBean(TaskService.class);
+        this.searchIndex = context.getBean(TaskSearchIndex.class);
+        this.jdbc = context.getBean(JdbcTemplate.class);
+        this.iterations = iterations;
+        this.warmup = warmup;
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = parse(args);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(AuthApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:query-harness;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--spring.jpa.properties.hibernate.session_factory.statement_inspector=" + SqlCapture.class.getName(),
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "--auth.password.calibrate=false");
+        try {
+            int users = Integer.parseInt(options.get("users"));
+            int heavy = Integer.parseInt(options.get("heavy-user-tasks"));
+            int perUser = Integer.parseInt(options.get("tasks-per-user"));
+            int sharesPerUser = Integer.parseInt(options.get("shares-per-user"));
+
+            long start = System.nanoTime();
+            long taskCount = new DatasetSeeder(context.getBean(JdbcTemplate.class), Long.parseLong(options.get("seed")))
+                    .seed(users, heavy, perUser, sharesPerUser);
+            System.out.printf("Seeded %d users, %d tasks, %d shares in %.1f s%n%n",
+                    users, taskCount, (long) users * sharesPerUser, (System.nanoTime() - start) / 1e9);
+            // Seeding bypasses TaskService, so the search index has to be rebuilt from the tables
+            context.getBean(TaskSearchIndex.class).rebuild();
+
+            TaskQueryHarness harness = new TaskQueryHarness(context,
+                    Integer.parseInt(options.get("iterations")), Integer.parseInt(options.get("warmup")));
+            harness.run(Boolean.parseBoolean(options.get("plans")));
+        } finally {
+            SecurityContextHolder.clearContext();
+            context.close();
+        }
+    }
+
+    private void run(boolean printPlans) {
+        UserModel user = users.findById(1L).orElseThrow();
+        Long userId = user.getId();
+        LocalDateTime from = DatasetSeeder.ORIGIN.plusDays(30);
+        LocalDateTime to = from.plusDays(30);
+        Pageable firstPage = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt"));
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(userId, user.getUsername()), null, List.of()));
+
+        Map<String, IntSupplier> cases = new LinkedHashMap<>();
+        cases.put("findByUserIdOrderByCreatedAtDesc", () -> tasks.findByUserIdOrderByCreatedAtDesc(userId).size());
+        cases.put("findByIdAndUserId", () -> tasks.findByIdAndUserId(userId, userId).isPresent() ? 1 : 0);
+        cases.put("findByUserAndCompleted", () -> tasks.findByUserAndCompleted(user, true).size());
+        cases.put("findByUserAndPriority", () -> tasks.findByUserAndPriority(user, Priority.HIGH).size());
+        cases.put("findByUserAndDueDate", () -> tasks.findByUserAndDueDate(user, from).size());
+        cases.put("findByUserOrderByCreatedAtDesc(page)", () -> tasks.findByUserOrderByCreatedAtDesc(user, firstPage).getNumberOfElements());
+        cases.put("findByUserAndCompleted(page)", () -> tasks.findByUserAndCompleted(user, false, firstPage).getNumberOfElements());
+        cases.put("findByUserAndPriority(page)", () -> tasks.findByUserAndPriority(user, Priority.LOW, firstPage).getNumberOfElements());
+        cases.put("findByUserAndTitleContainingIgnoreCase", () -> tasks.findByUserAndTitleContainingIgnoreCase(user, "budget", firstPage).getNumberOfElements());
+        cases.put("findByUserAndDescriptionContainingIgnoreCase", () -> tasks.findByUserAndDescriptionContainingIgnoreCase(user, "roadmap", firstPage).getNumberOfElements());
+        cases.put("findByUserAndDueDateBetween", () -> tasks.findByUserAndDueDateBetween(user, from, to, firstPage).getNumberOfElements());
+        cases.put("findByUserAndDueDateBefore", () -> tasks.findByUserAndDueDateBefore(user, from, firstPage).getNumberOfElements());
+        cases.put("findByUserAndDueDateAfter", () -> tasks.findByUserAndDueDateAfter(user, to, firstPage).getNumberOfElements());
+        cases.put("countByUser", () -> (int) tasks.countByUser(user));
+        cases.put("countByUserAndCompleted", () -> (int) tasks.countByUserAndCompleted(user, true));
+        cases.put("findTaskResponses(no filters)", () -> tasks.findTaskResponses(
+                new TaskFilter(userId, null, null, null, null, null, null), firstPage).getNumberOfElements());
+        cases.put("TaskShareRepository.findBySharedWith", () -> shares.findBySharedWith(user).size());
+        cases.put("TaskShareRepository.findBySharedWithId", () -> shares.findBySharedWithId(userId).size());
+        cases.put("TaskShareRepository.findSharedTasks(page)", () -> shares.findSharedTasks(userId, PageRequest.of(0, 20)).getNumberOfElements());
+        cases.put("TaskService.getSharedTasks", () -> taskService.getSharedTasks(0, 20).getTasks().size());
+        cases.put("UserRepository.findByUsername", () -> users.findByUsername(user.getUsername()).isPresent() ? 1 : 0);
+
+        // The /api/tasks/search combinations, through the same service method the controller calls
+        search(cases, "search: defaults", f -> { });
+        search(cases, "search: page 200", f -> f.setPage(200));
+        search(cases, "search: title", f -> f.setTitle("budget"));
+        search(cases, "search: description", f -> f.setDescription("roadmap"));
+        TaskSearchIndex index = searchIndex;
+        cases.put("TaskSearchIndex.search candidates (no SQL)", () -> {
+            Set<Long> ids = index.search(userId, "budget");
+            return ids == null ? -1 : ids.size();
+        });
+        cases.put("TaskSearchIndex.search rare candidates (no SQL)", () -> {
+            Set<Long> ids = index.search(userId, "budget report 12");
+            return ids == null ? -1 : ids.size();
+        });
+        search(cases, "search: search rare (index)", f -> f.setSearch("budget report 12"));
+        search(cases, "search: search broad (SQL fallback)", f -> f.setSearch("budget"));
+        search(cases, "search: search 2 chars", f -> f.setSearch("ud"));
+        search(cases, "search: completed", f -> f.setCompleted(false));
+        search(cases, "search: priority", f -> f.setPriority(Priority.HIGH));
+        search(cases, "search: due range", f -> {
+            f.setDueAfter(from.toString());
+            f.setDueBefore(to.toString());
+        });
+        search(cases, "search: title+completed+priority", f -> {
+            f.setTitle("report");
+            f.setCompleted(true);
+            f.setPriority(Priority.MEDIUM);
+        });
+        search(cases, "search: all filters", f -> {
+            f.setTitle("deploy");
+            f.setDescription("security");
+            f.setCompleted(false);
+            f.setPriority(Priority.LOW);
+            f.setDueAfter(from.toString());
+            f.setDueBefore(to.toString());
+        });
+        search(cases, "search: sort dueDate asc", f -> {
+            f.setSortBy("dueDate");
+            f.setSortDirection("asc");
+        });
+
+        // Keyset mode, including a deep page reached by following nextCursor
+        String deepCursor = cursorAt(200);
+        cases.put("search: cursor first page", () -> cursorSearch(null));
+        cases.put("search: cursor page 200", () -> cursorSearch(deepCursor));
+
+        System.out.printf("%-46s %8s %9s %9s %9s %9s%n", "case", "rows", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        Map<String, Set<String>> statements = new LinkedHashMap<>();
+        cases.forEach((name, query) -> {
+            Result result = measure(query);
+            statements.put(name, result.statements());
+            System.out.printf("%-46s %8d %9.3f %9.3f %9.3f %9.3f%n", name, result.rows(),
+                    result.percentile(0.50), result.percentile(0.90), result.percentile(0.99), result.percentile(1.0));
+        });
+
+        if (printPlans) {
+            Map<String, String> planCache = new HashMap<>();
+            statements.forEach((name, sqls) -> {
+                System.out.println();
+                System.out.println("== " + name);
+                for (String sql : sqls) {
+                    System.out.println(planCache.computeIfAbsent(sql, this::explain));
+                }
+            });
+        }
+    }
+
+    private void search(Map<String, IntSupplier> cases, String name, Consumer<TaskFilterRequest> filter) {
+        cases.put(name, () -> {
+            TaskFilterRequest request = new TaskFilterRequest();
+            request.setSize(20);
+            filter.accept(request);
+            return taskService.getTasksWithFilters(request).getTasks().size();
+        });
+    }
+
+    private int cursorSearch(String after) {
+        TaskFilterRequest request = new TaskFilterRequest();
+        request.setSize(20);
+        request.setAfter(after);
+        return taskService.getTasksAfterCursor(request).getTasks().size();
+    }
+
+    private String cursorAt(int page) {
+        TaskFilterRequest request = new TaskFilterRequest();
+        request.setSize(20);
+        for (int i = 0; i < page && (i == 0 || request.getAfter() != null); i++) {
+            request.setAfter(taskService.getTasksAfterCursor(request).getNextCursor());
+        }
+        return request.getAfter();
+    }
+
+    private Result measure(IntSupplier query) {
+        for (int i = 0; i < warmup; i++) {
+            query.getAsInt();
+        }
+        SqlCapture.start();
+        int rows = query.getAsInt();
+        Set<String> statements = SqlCapture.stop();
+
+        long[] samples = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            query.getAsInt();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return new Result(rows, samples, statements);
+    }
+
+    // H2 explains parameterised SQL as-is, which is the plan a prepared statement gets
+    private String explain(String sql) {
+        try {
+            return String.join("\n", jdbc.queryForList("EXPLAIN " + sql, String.class));
+        } catch (RuntimeException e) {
+            return "-- EXPLAIN failed: " + e.getMessage() + "\n" + sql;
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String key = arg.substring(2, arg.indexOf('='));
+            if (!DEFAULTS.containsKey(key)) {
+                throw new IllegalArgumentException("Unknown option --" + key + "; known: " + new ArrayList<>(DEFAULTS.keySet()));
+            }
+            options.put(key, arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    private record Result(int rows, long[] sortedNanos, Set<String> statements) {
+        double percentile(double percentile) {
+            int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(percentile * sortedNanos.length) - 1);
+            return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.ryanm.auth.benchmarks.query;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ryanm.auth.AuthApplication;
+import com.ryanm.auth.dto.tasks.TaskResponse;
+import com.ryanm.auth.model.Task;
+import com.ryanm.auth.model.UserModel;
+import com.ryanm.auth.repository.TaskFilter;
+import com.ryanm.auth.repository.TaskRepository;
+import com.ryanm.auth.repository.UserRepository;
+
+/**
+ * Task read endpoints, entity path vs projection path, each invocation in its
+ * own transaction as a request would be. The entity variants are the previous
+ * TaskService reads: load managed Tasks in a read-write transaction, then copy
+ * them into TaskResponse. The projection variants are the current ones: JPQL
+ * constructor expressions in a read-only transaction.
+ *
+ * <pre>
+ * mvn -pl benchmarks exec:exec -Dbench.args="TaskReadPathBenchmark -prof gc"
+ * </pre>
+ * Compare gc.alloc.rate.norm (bytes per operation) alongside the scores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g", "-XX:+UseG1GC"})
+@State(Scope.Benchmark)
+public class TaskReadPathBenchmark {
+
+    @Param({"2000"})
+    public int tasks;
+
+    private ConfigurableApplicationContext context;
+    private TaskRepository taskRepository;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    private UserModel user;
+    private Long taskId;
+    private final Pageable firstPage = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt"));
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(AuthApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:read-path;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "--auth.password.calibrate=false");
+        new DatasetSeeder(context.getBean(JdbcTemplate.class), 42L).seed(20, tasks, 50, 0);
+
+        taskRepository = context.getBean(TaskRepository.class);
+        PlatformTransactionManager transactions = context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactions);
+        readOnly = new TransactionTemplate(transactions);
+        readOnly.setReadOnly(true);
+        user = context.getBean(UserRepository.class).findById(1L).orElseThrow();
+        taskId = (long) tasks / 2;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TaskResponse> listAllEntities() {
+        return readWrite.execute(status -> taskRepository.findByUserIdOrderByCreatedAtDesc(user.getId()).stream()
+                .map(TaskReadPathBenchmark::toResponse)
+                .toList());
+    }
+
+    @Benchmark
+    public List<TaskResponse> listAllProjection() {
+        return readOnly.execute(status -> taskRepository.findResponsesByUserId(user.getId()));
+    }
+
+    @Benchmark
+    public List<TaskResponse> pageEntities() {
+        return readWrite.execute(status -> taskRepository.findByUserOrderByCreatedAtDesc(user, firstPage).stream()
+                .map(TaskReadPathBenchmark::toResponse)
+                .toList());
+    }
+
+    @Benchmark
+    public List<TaskResponse> pageProjection() {
+        return readOnly.execute(status -> taskRepository.findTaskResponses(
+                new TaskFilter(user.getId(), null, null, null, null, null, null), firstPage).getContent());
+    }
+
+    @Benchmark
+    public TaskResponse byIdEntity() {
+        return readWrite.execute(status -> toResponse(taskRepository.findByIdAndUserId(taskId, user.getId()).orElseThrow()));
+    }
+
+    @Benchmark
+    public TaskResponse byIdProjection() {
+        return readOnly.execute(status -> taskRepository.findResponseByIdAndUserId(taskId, user.getId()).orElseThrow());
+    }
+
+    // Same copy TaskService.convertToResponse makes
+    private static TaskResponse toResponse(Task task) {
+        return new TaskResponse(task.getId(), task.getTitle(), task.getDescription(), task.getCompleted(),
+                task.getPriority(), task.getDueDate(), task.getCreatedAt(), task.getUpdatedAt());
+    }
+}
@@ -0,0 +1,50 @@
+package com.ryanm.auth.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ryanm.auth.benchmarks.BenchmarkFixtures;
+import com.ryanm.auth.dto.tasks.TaskResponse;
+import com.ryanm.auth.model.Task;
+
+/**
+ * Entity-to-DTO mapping done by every task endpoint. Lives in the service
+ * package to reach the package-private {@link TaskService#convertToResponse(Task)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g", "-XX:+UseG1GC"})
+@State(Scope.Benchmark)
+public class TaskMappingBenchmark {
+
+    @Param({"1", "100"})
+    private int taskCount;
+
+    private List<Task> tasks;
+
+    @Setup
+    public void setUp() {
+        tasks = BenchmarkFixtures.tasks(taskCount);
+    }
+
+    @Benchmark
+    public List<TaskResponse> convertToResponse() {
+        return tasks.stream()
+                .map(TaskService::convertToResponse)
+                .toList();
+    }
+}